@@ -7,6 +7,7 @@ import com.google.guiceberry.TestScoped;
 import com.google.guiceberry.controllable.IcMaster;
 import com.google.guiceberry.controllable.StaticMapInjectionController;
 import com.google.guiceberry.controllable.TestIdServerModule;
+import com.google.guiceberry.host.HostPortProvider;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Key;
@@ -24,11 +25,6 @@ import tutorial_1_server.prod.Featured;
 
 public final class PetStoreEnv4InjectionController extends AbstractModule {
   
-  @Provides @Singleton
-  @PortNumber int getPortNumber() {
-    return FreePortFinder.findFreePort();
-  }
-  
   @Provides @TestScoped
   WebDriver getWebDriver(@PortNumber int portNumber, TestId testId) {
     WebDriver driver = new HtmlUnitDriver();
@@ -57,6 +53,10 @@ public final class PetStoreEnv4InjectionController extends AbstractModule {
   @Override
   protected void configure() {
     install(new GuiceBerryModule());
+    // Unlike FreePortFinder, this is safe when many test JVMs start servers
+    // at the same time
+    bind(Integer.class).annotatedWith(PortNumber.class)
+        .toProvider(HostPortProvider.class).in(Singleton.class);
     bind(GuiceBerryEnvMain.class).to(PetStoreServerStarter.class);
     // !!!! HERE !!!!
     icMaster = new IcMaster()
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+/**
+ * An alternative to {@link GuiceBerryEnvMain} for GuiceBerry Envs with
+ * several independent things to start (e.g. a database and two servers):
+ * rather than starting them one after the other, {@link #start} adds a task
+ * per component to the given {@link EnvStartup}, and these tasks run
+ * concurrently, each as soon as the components it depends on are ready.
+ *
+ * <p>{@link #start} is called right after {@link GuiceBerryEnvMain#run()}
+ * (if the env binds both), and it should return right away, i.e. not wait for
+ * its tasks. Each test only waits for the components it needs (see
+ * {@link AwaitEnvComponents}) before being set up.
+ */
+public interface AsyncGuiceBerryEnvMain {
+
+  /** @see AsyncGuiceBerryEnvMain */
+  void start(EnvStartup startup);
+
+}
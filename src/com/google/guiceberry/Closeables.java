@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Helps closing instances that implement {@link Closeable} or (on JVMs that
+ * have it) {@code java.lang.AutoCloseable}. The latter is looked up
+ * reflectively, so that GuiceBerry still runs on older JVMs.
+ */
+final class Closeables {
+
+  private static final Class<?> AUTO_CLOSEABLE = findAutoCloseable();
+
+  private Closeables() {}
+
+  private static Class<?> findAutoCloseable() {
+    try {
+      return Class.forName("java.lang.AutoCloseable");
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  static boolean isCloseable(Object instance) {
+    return (instance instanceof Closeable)
+        || ((AUTO_CLOSEABLE != null) && AUTO_CLOSEABLE.isInstance(instance));
+  }
+
+  static void close(Object instance) throws Exception {
+    if (instance instanceof Closeable) {
+      ((Closeable) instance).close();
+      return;
+    }
+    Method close = AUTO_CLOSEABLE.getMethod("close");
+    try {
+      close.invoke(instance);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  /**
+   * Closes all the closeable {@code instances}, in the reverse order they
+   * are given (i.e. last created, first closed).
+   *
+   * @throws RuntimeException if closing any of these failed. All instances
+   *     are closed nonetheless.
+   */
+  static void closeAll(List<?> instances, String owner) {
+    Exception failure = null;
+    for (Object instance : Lists.reverse(instances)) {
+      if (!isCloseable(instance)) {
+        continue;
+      }
+      try {
+        close(instance);
+      } catch (Exception e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw new RuntimeException(String.format(
+          "Error while closing the instances of %s.", owner), failure);
+    }
+  }
+}
@@ -19,6 +19,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Module;
 import com.google.inject.testing.guiceberry.junit3.GuiceBerryEnvRemapper;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * See {@link GuiceBerryEnvSelector}.
  * 
@@ -34,6 +37,25 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
     "For more details, see http://guiceberry.googlecode.com, section 'Upgrading from 2.0 to 3.0'";
 
   private static final String OVERRIDE_SYSTEM_PROPERY_NAME = "GuiceBerryEnvSelectorOverride";
+
+  /**
+   * Bumped every time {@link #override} or {@link #clearOverride} is called,
+   * which invalidates all the {@link #overrideNames} read so far.
+   */
+  private static volatile int overrideGeneration = 0;
+
+  /**
+   * For each declared GuiceBerry Env name, the name of the env that overrides
+   * it (or {@code null}), as read from the {@link System} properties.
+   */
+  private static final ConcurrentMap<String, OverrideName> overrideNames =
+      new ConcurrentHashMap<String, OverrideName>();
+
+  /**
+   * The GuiceBerry Env classes loaded so far, by name.
+   */
+  private static final ConcurrentMap<String, Class<?>> gbeClasses =
+      new ConcurrentHashMap<String, Class<?>>();
   
   private final String clazzName;
 
@@ -102,9 +124,10 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
       }
       
       @SuppressWarnings("rawtypes")
-      Class clazz;
-      try {
-        clazz = DefaultEnvSelector.class.getClassLoader().loadClass(overrideName);
+      Class clazz = gbeClasses.get(overrideName);
+      if (clazz == null) {
+        try {
+          clazz = DefaultEnvSelector.class.getClassLoader().loadClass(overrideName);
         } catch (ClassNotFoundException e) {
           throw new IllegalArgumentException(String.format(
             "Class '%s' does not exist, and it is being declared as a '%s' override (though the '%s' System Property).",
@@ -113,6 +136,8 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
             OVERRIDE_SYSTEM_PROPERY_NAME
             ), e);
         }
+        gbeClasses.put(overrideName, clazz);
+      }
         if (Module.class.isAssignableFrom(clazz)) {
           return clazz;
         }
@@ -139,7 +164,10 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
   }
 
   static Class<?> getGbeClassFromClassName(String gbeName) {
-    Class<?> className;
+    Class<?> className = gbeClasses.get(gbeName);
+    if (className != null) {
+      return className;
+    }
     try {
       className = DefaultEnvSelector.class.getClassLoader().loadClass(gbeName);   
     } catch (ClassNotFoundException e) {  
@@ -148,6 +176,7 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
               gbeName.toString());
       throw new IllegalArgumentException(msg, e);
     }
+    gbeClasses.put(gbeName, className);
     return className;
   }
   
@@ -186,6 +215,7 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
     }
     System.setProperty(buildSystemPropertyName(declaredGuiceBerryEnv.getName()),
         guiceBerryEnvOverride.getName());
+    overrideGeneration++;
   }
 
   /**
@@ -195,6 +225,7 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
   public static synchronized void clearOverride(
       Class<? extends Module> declaredGuiceBerryEnv) {
     System.clearProperty(buildSystemPropertyName(declaredGuiceBerryEnv.getName()));
+    overrideGeneration++;
   }
 
   /**
@@ -208,16 +239,38 @@ public class DefaultEnvSelector implements GuiceBerryEnvSelector {
   /**
    * Returns true if the {@code declaredGuiceBerryEnv} is being overridden.
    */
-  public static synchronized boolean isOverridden(String declaredGuiceBerryEnvName) {
+  public static boolean isOverridden(String declaredGuiceBerryEnvName) {
     return getOverrideName(declaredGuiceBerryEnvName) != null;
   }
 
   /**
    * Returns the name of the GuiceBerry Env that overrides
    * {@code declaredGuiceBerryEnvName}, or {@code null} if there is no override.
+   *
+   * <p>The {@link System} property is only read the first time, and again
+   * after each call to {@link #override} or {@link #clearOverride}, so
+   * overrides must be set either through these methods, or before the first
+   * test runs (say by passing a -D system property to the java runtime).
    */
   private static String getOverrideName(String declaredGuiceBerryEnvName) {
-    return System.getProperty(buildSystemPropertyName(declaredGuiceBerryEnvName));
+    int generation = overrideGeneration;
+    OverrideName result = overrideNames.get(declaredGuiceBerryEnvName);
+    if ((result == null) || (result.generation != generation)) {
+      result = new OverrideName(generation,
+          System.getProperty(buildSystemPropertyName(declaredGuiceBerryEnvName)));
+      overrideNames.put(declaredGuiceBerryEnvName, result);
+    }
+    return result.name;
+  }
+
+  private static final class OverrideName {
+    final int generation;
+    final String name;
+
+    OverrideName(int generation, String name) {
+      this.generation = generation;
+      this.name = name;
+    }
   }
 
   /**
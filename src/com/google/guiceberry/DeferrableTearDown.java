@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDown;
+
+/**
+ * A {@link TearDown} whose work can't affect any later test (e.g. deleting
+ * the test's temporary files, or closing connections to a per-test
+ * namespace). When added to GuiceBerry's
+ * {@link com.google.common.testing.TearDownAccepter}, it is not run when the
+ * test ends, but rather queued to run in the background, while the next test
+ * is already starting.
+ *
+ * <p>The test's {@link TestScoped} (and {@link TestPooled}) instances are only
+ * thrown away after its deferred tear downs ran, so these can still use them.
+ * Failures of a deferred tear down can't fail its test anymore, so they are
+ * logged instead.
+ *
+ * <p>At most {@code GuiceBerryDeferredTearDownQueueSize} (a system property,
+ * which defaults to the number of available processors) tests can have
+ * deferred tear downs waiting to run; once that many are queued, ending a
+ * test blocks until there is room in the queue. All deferred tear downs are
+ * run before the JVM exits.
+ */
+public interface DeferrableTearDown extends TearDown {}
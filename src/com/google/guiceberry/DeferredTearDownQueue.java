@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The bounded queue of tests whose {@link DeferrableTearDown}s are waiting to
+ * run. These are run one test at a time, in the order they were queued, by a
+ * single daemon thread.
+ */
+final class DeferredTearDownQueue {
+
+  static final String SIZE_SYSTEM_PROPERTY_NAME = "GuiceBerryDeferredTearDownQueueSize";
+
+  private static final Logger logger =
+      Logger.getLogger(DeferredTearDownQueue.class.getName());
+
+  private final GuiceBerryUniverse universe;
+  private final Semaphore room;
+  private final ExecutorService executor;
+
+  private int pending = 0;
+
+  DeferredTearDownQueue(GuiceBerryUniverse universe) {
+    this(universe, Integer.getInteger(
+        SIZE_SYSTEM_PROPERTY_NAME, Runtime.getRuntime().availableProcessors()));
+  }
+
+  DeferredTearDownQueue(GuiceBerryUniverse universe, int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' system property must be a positive number, but it is '%d'.",
+          SIZE_SYSTEM_PROPERTY_NAME, size));
+    }
+    this.universe = universe;
+    this.room = new Semaphore(size, true);
+    this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("GuiceBerry deferred tear down %d")
+        .build());
+    Runtime.getRuntime().addShutdownHook(new Thread("GuiceBerry deferred tear down flush") {
+      @Override
+      public void run() {
+        flush();
+      }
+    });
+  }
+
+  /**
+   * Queues {@code tearDown}, to be run (with {@code testDescription} as the
+   * current test) in the background. If the queue is full, blocks until
+   * there is room for it.
+   */
+  void enqueue(final TestDescription testDescription, final Runnable tearDown) {
+    room.acquireUninterruptibly();
+    synchronized (this) {
+      pending++;
+    }
+    executor.execute(new Runnable() {
+      public void run() {
+        universe.currentTestDescriptionThreadLocal.set(testDescription);
+        try {
+          tearDown.run();
+        } catch (RuntimeException e) {
+          logger.log(Level.WARNING, String.format(
+              "A deferred tear down of '%s' failed.", testDescription.getName()), e);
+        } finally {
+          universe.currentTestDescriptionThreadLocal.remove();
+          room.release();
+          synchronized (DeferredTearDownQueue.this) {
+            pending--;
+            DeferredTearDownQueue.this.notifyAll();
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Blocks until all the tear downs queued so far have run.
+   */
+  synchronized void flush() {
+    boolean interrupted = false;
+    while (pending > 0) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InjectionPoint;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * If a GuiceBerry Env binds an instance of this class, GuiceBerry will build
+ * the given {@link TestScoped} (or {@link TestClassScoped} or
+ * {@link TestPooled}) keys concurrently, in a pool of worker threads, before
+ * injecting the members of each test. When a test injects several slow
+ * fixtures, this makes its set up take about as long as the slowest of them,
+ * rather than the sum of all of them.
+ *
+ * <p>E.g., in your GuiceBerry Env:
+ *
+ * <pre>
+ *   bind(EagerTestScopedKeys.class).toInstance(EagerTestScopedKeys.inferredFromTest());
+ * </pre>
+ *
+ * <p>A few things to note:
+ *
+ * <ul>
+ *   <li>The fixtures are built in threads other than the test's, so they must
+ *     not depend on thread-confined state;
+ *   <li>Keys whose instances depend on each other in a cycle should not be
+ *     built eagerly;
+ *   <li>If building an instance eagerly fails, the failure is ignored, and the
+ *     instance is built again (failing in the usual way) when the test's
+ *     members are injected.
+ * </ul>
+ */
+public final class EagerTestScopedKeys {
+
+  private final Set<Key<?>> keys;
+  private final boolean inferredFromTest;
+
+  private final ConcurrentMap<Class<?>, Set<Key<?>>> inferredKeysCache =
+      new ConcurrentHashMap<Class<?>, Set<Key<?>>>();
+
+  private EagerTestScopedKeys(Set<Key<?>> keys, boolean inferredFromTest) {
+    this.keys = keys;
+    this.inferredFromTest = inferredFromTest;
+  }
+
+  /**
+   * Declares the given un-annotated {@code classes} as the ones to be built
+   * eagerly.
+   */
+  public static EagerTestScopedKeys of(Class<?>... classes) {
+    ImmutableSet.Builder<Key<?>> result = ImmutableSet.builder();
+    for (Class<?> clazz : classes) {
+      result.add(Key.get(clazz));
+    }
+    return new EagerTestScopedKeys(result.build(), false);
+  }
+
+  /**
+   * Declares the given {@code keys} as the ones to be built eagerly.
+   */
+  public static EagerTestScopedKeys of(Key<?>... keys) {
+    return new EagerTestScopedKeys(ImmutableSet.<Key<?>>copyOf(keys), false);
+  }
+
+  /**
+   * Rather than declaring the keys up front, has GuiceBerry find out, for each
+   * test class, which of its injected members are {@link TestScoped},
+   * {@link TestClassScoped} or {@link TestPooled}, and build these eagerly.
+   */
+  public static EagerTestScopedKeys inferredFromTest() {
+    return new EagerTestScopedKeys(ImmutableSet.<Key<?>>of(), true);
+  }
+
+  /**
+   * Returns the keys to be built eagerly for the given {@code testClass}.
+   */
+  Set<Key<?>> keysFor(Injector injector, Class<?> testClass) {
+    if (!inferredFromTest) {
+      return keys;
+    }
+    Set<Key<?>> result = inferredKeysCache.get(testClass);
+    if (result == null) {
+      result = inferKeys(injector, testClass);
+      inferredKeysCache.putIfAbsent(testClass, result);
+    }
+    return result;
+  }
+
+  private static Set<Key<?>> inferKeys(Injector injector, Class<?> testClass) {
+    Set<InjectionPoint> injectionPoints;
+    try {
+      injectionPoints = InjectionPoint.forInstanceMethodsAndFields(testClass);
+    } catch (ConfigurationException e) {
+      // This will be reported properly when the members are injected
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<Key<?>> result = ImmutableSet.builder();
+    for (InjectionPoint injectionPoint : injectionPoints) {
+      for (Dependency<?> dependency : injectionPoint.getDependencies()) {
+        Key<?> key = dependency.getKey();
+        if (isGuiceBerryScoped(injector, key)) {
+          result.add(key);
+        }
+      }
+    }
+    return result.build();
+  }
+
+  private static boolean isGuiceBerryScoped(Injector injector, Key<?> key) {
+    if (key.getTypeLiteral().getRawType() == Provider.class
+        || key.getTypeLiteral().getRawType() == javax.inject.Provider.class) {
+      // Whoever injects a Provider wants to build the instance lazily
+      return false;
+    }
+    Binding<?> binding;
+    try {
+      binding = injector.getBinding(key);
+    } catch (ConfigurationException e) {
+      // This will be reported properly when the members are injected
+      return false;
+    }
+    return binding.acceptScopingVisitor(new DefaultBindingScopingVisitor<Boolean>() {
+      @Override
+      public Boolean visitScope(Scope scope) {
+        return (scope instanceof TestScope)
+            || (scope instanceof TestClassScope)
+            || (scope instanceof TestPoolScope);
+      }
+
+      @Override
+      public Boolean visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+        return (scopeAnnotation == TestScoped.class)
+            || (scopeAnnotation == TestClassScoped.class)
+            || (scopeAnnotation == TestPooled.class);
+      }
+
+      @Override
+      protected Boolean visitOther() {
+        return false;
+      }
+    });
+  }
+}
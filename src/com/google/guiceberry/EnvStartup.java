@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The startup of a GuiceBerry Env with an {@link AsyncGuiceBerryEnvMain}: a
+ * set of named components, each started by a task that runs in a thread of
+ * its own once the components it depends on are ready.
+ */
+public final class EnvStartup {
+
+  private static final Logger logger = Logger.getLogger(EnvStartup.class.getName());
+
+  private final String envName;
+
+  private final ThreadFactory threadFactory;
+
+  /**
+   * The readiness of each component, in the order they were added. Guarded by
+   * {@code this}.
+   */
+  private final Map<String, ListenableFuture<Void>> componentToReadinessMap =
+      Maps.newLinkedHashMap();
+
+  private boolean sealed;
+
+  EnvStartup(String envName) {
+    this.envName = envName;
+    this.threadFactory = new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("GuiceBerry startup of " + envName + " %d")
+        .build();
+  }
+
+  /**
+   * Starts the {@code component} of this env by running {@code task}, in a
+   * thread of its own, once all of its {@code dependencies} are ready. If any
+   * of these fails, {@code task} is not run, and {@code component} fails as
+   * well.
+   *
+   * @return the readiness of {@code component}.
+   * @throws IllegalArgumentException if {@code component} was already added,
+   *     or if any of its {@code dependencies} was not (which also rules out
+   *     cycles).
+   * @throws IllegalStateException if called after
+   *     {@link AsyncGuiceBerryEnvMain#start} returned.
+   */
+  public synchronized ListenableFuture<Void> addTask(final String component,
+      final Runnable task, String... dependencies) {
+    if (sealed) {
+      throw new IllegalStateException(String.format(
+          "Tasks of the GuiceBerry Env '%s' must be added from its %s.",
+          envName, AsyncGuiceBerryEnvMain.class.getSimpleName()));
+    }
+    if (componentToReadinessMap.containsKey(component)) {
+      throw new IllegalArgumentException(String.format(
+          "The GuiceBerry Env '%s' already has a component named '%s'.", envName, component));
+    }
+    final List<ListenableFuture<Void>> dependencyReadiness = Lists.newArrayList();
+    for (String dependency : dependencies) {
+      ListenableFuture<Void> readiness = componentToReadinessMap.get(dependency);
+      if (readiness == null) {
+        throw new IllegalArgumentException(String.format(
+            "The component '%s' of the GuiceBerry Env '%s' depends on '%s', "
+            + "which must be added before it.", component, envName, dependency));
+      }
+      dependencyReadiness.add(readiness);
+    }
+    final SettableFuture<Void> result = SettableFuture.create();
+    componentToReadinessMap.put(component, result);
+    threadFactory.newThread(new Runnable() {
+      public void run() {
+        try {
+          Futures.allAsList(dependencyReadiness).get();
+        } catch (InterruptedException e) {
+          result.setException(e);
+          return;
+        } catch (ExecutionException e) {
+          result.setException(new RuntimeException(String.format(
+              "A dependency of the component '%s' failed to start.", component),
+              e.getCause()));
+          return;
+        }
+        long start = System.nanoTime();
+        try {
+          task.run();
+        } catch (Throwable e) {
+          result.setException(e);
+          return;
+        }
+        logger.fine(String.format("Started the component '%s' of the GuiceBerry Env '%s' in %d ms.",
+            component, envName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        result.set(null);
+      }
+    }).start();
+    return result;
+  }
+
+  /**
+   * Returns the readiness of all the components of this env.
+   */
+  public synchronized ListenableFuture<List<Void>> getReadiness() {
+    return Futures.allAsList(componentToReadinessMap.values());
+  }
+
+  /**
+   * Returns the readiness of the given {@code components} of this env.
+   *
+   * @throws IllegalArgumentException if this env has no such components.
+   */
+  public synchronized ListenableFuture<List<Void>> getReadiness(String... components) {
+    List<ListenableFuture<Void>> result = Lists.newArrayList();
+    for (String component : components) {
+      ListenableFuture<Void> readiness = componentToReadinessMap.get(component);
+      if (readiness == null) {
+        throw new IllegalArgumentException(String.format(
+            "The GuiceBerry Env '%s' has no component named '%s' (only %s).",
+            envName, component, Joiner.on(", ").join(componentToReadinessMap.keySet())));
+      }
+      result.add(readiness);
+    }
+    return Futures.allAsList(result);
+  }
+
+  /**
+   * Returns the names of the components of this env.
+   */
+  public synchronized Collection<String> getComponents() {
+    return Lists.newArrayList(componentToReadinessMap.keySet());
+  }
+
+  /**
+   * Called after {@link AsyncGuiceBerryEnvMain#start} returned, after which
+   * no more tasks can be added.
+   */
+  synchronized void seal() {
+    sealed = true;
+  }
+
+  /**
+   * Waits until the given {@code components} (or all of them, if
+   * {@code null}) are ready.
+   *
+   * @throws RuntimeException if any of them failed to start.
+   */
+  void await(String[] components) {
+    ListenableFuture<List<Void>> readiness =
+        (components == null) ? getReadiness() : getReadiness(components);
+    try {
+      readiness.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(String.format(
+          "Interrupted while waiting for the GuiceBerry Env '%s' to start.", envName), e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(String.format(
+          "The GuiceBerry Env '%s' failed to start %s.", envName,
+          (components == null) ? "its components" : Arrays.toString(components)),
+          e.getCause());
+    }
+  }
+
+  /**
+   * Waits until all components either started or failed to.
+   */
+  void awaitQuietly() {
+    ListenableFuture<List<Void>> readiness;
+    synchronized (this) {
+      readiness = Futures.successfulAsList(componentToReadinessMap.values());
+    }
+    try {
+      readiness.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException cantHappen) {
+    }
+  }
+}
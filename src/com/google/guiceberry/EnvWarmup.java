@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import java.util.List;
+
+/**
+ * If a GuiceBerry Env binds this interface, its tasks (e.g. requests to the
+ * servers started by its {@link GuiceBerryEnvMain}) are run before its first
+ * test, so that class loading and JIT compilation don't make the first tests
+ * look much slower than the others.
+ *
+ * <p>The tasks are run in rounds, all tasks of a round concurrently, until
+ * their average latency settles, i.e. it changes by no more than the
+ * {@code GuiceBerryWarmupTolerance} system property (a fraction, 0.1 by
+ * default) from one round to the next, or until
+ * {@code GuiceBerryWarmupMaxRounds} (20 by default) rounds ran.
+ *
+ * <p>Warm-up runs after the env's {@link GuiceBerryEnvMain} and all components
+ * of its {@link AsyncGuiceBerryEnvMain} are ready, and its cost is logged
+ * apart from the env's creation.
+ */
+public interface EnvWarmup {
+
+  /** @see EnvWarmup */
+  List<? extends Runnable> getTasks();
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Runs the rounds of an {@link EnvWarmup}.
+ */
+final class EnvWarmupRunner {
+
+  static final String MAX_ROUNDS_SYSTEM_PROPERTY_NAME = "GuiceBerryWarmupMaxRounds";
+
+  static final String TOLERANCE_SYSTEM_PROPERTY_NAME = "GuiceBerryWarmupTolerance";
+
+  private static final Logger logger = Logger.getLogger(EnvWarmupRunner.class.getName());
+
+  private final int maxRounds;
+  private final double tolerance;
+
+  EnvWarmupRunner() {
+    this(Integer.getInteger(MAX_ROUNDS_SYSTEM_PROPERTY_NAME, 20),
+        Double.parseDouble(System.getProperty(TOLERANCE_SYSTEM_PROPERTY_NAME, "0.1")));
+  }
+
+  EnvWarmupRunner(int maxRounds, double tolerance) {
+    if (maxRounds < 1) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' system property must be a positive number, but it is '%d'.",
+          MAX_ROUNDS_SYSTEM_PROPERTY_NAME, maxRounds));
+    }
+    if (tolerance < 0) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' system property must not be negative, but it is '%s'.",
+          TOLERANCE_SYSTEM_PROPERTY_NAME, tolerance));
+    }
+    this.maxRounds = maxRounds;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * What a warm-up took.
+   */
+  static final class Result {
+    final int rounds;
+    final long nanos;
+    final long firstRoundLatencyNanos;
+    final long lastRoundLatencyNanos;
+
+    Result(int rounds, long nanos, long firstRoundLatencyNanos, long lastRoundLatencyNanos) {
+      this.rounds = rounds;
+      this.nanos = nanos;
+      this.firstRoundLatencyNanos = firstRoundLatencyNanos;
+      this.lastRoundLatencyNanos = lastRoundLatencyNanos;
+    }
+  }
+
+  /**
+   * Runs rounds of the tasks of {@code warmup} until their latency settles,
+   * and logs what it took.
+   *
+   * @throws RuntimeException if any task failed.
+   */
+  Result run(String envName, EnvWarmup warmup) {
+    List<? extends Runnable> tasks = warmup.getTasks();
+    if (tasks.isEmpty()) {
+      return new Result(0, 0, 0, 0);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size(),
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("GuiceBerry warm-up of " + envName + " %d")
+            .build());
+    try {
+      long start = System.nanoTime();
+      long firstLatency = 0;
+      long previousLatency = 0;
+      long latency = 0;
+      int rounds = 0;
+      while (rounds < maxRounds) {
+        latency = runRound(envName, executor, tasks);
+        rounds++;
+        if (rounds == 1) {
+          firstLatency = latency;
+        } else if (Math.abs(latency - previousLatency) <= previousLatency * tolerance) {
+          break;
+        }
+        previousLatency = latency;
+      }
+      Result result = new Result(rounds, System.nanoTime() - start, firstLatency, latency);
+      logger.info(String.format(
+          "Warmed up the GuiceBerry Env '%s' in %d ms (%d rounds of %d tasks); "
+          + "their average latency went from %d us to %d us.",
+          envName, TimeUnit.NANOSECONDS.toMillis(result.nanos), rounds, tasks.size(),
+          TimeUnit.NANOSECONDS.toMicros(firstLatency),
+          TimeUnit.NANOSECONDS.toMicros(latency)));
+      return result;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs all {@code tasks} concurrently, and returns their average latency.
+   */
+  private static long runRound(String envName, ExecutorService executor,
+      List<? extends Runnable> tasks) {
+    List<Future<Long>> futures = Lists.newArrayList();
+    for (final Runnable task : tasks) {
+      futures.add(executor.submit(new Callable<Long>() {
+        public Long call() {
+          long start = System.nanoTime();
+          task.run();
+          return System.nanoTime() - start;
+        }
+      }));
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      try {
+        total += future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(String.format(
+            "Interrupted while warming up the GuiceBerry Env '%s'.", envName), e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException(String.format(
+            "Error while warming up the GuiceBerry Env '%s'.", envName), e.getCause());
+      }
+    }
+    return total / tasks.size();
+  }
+}
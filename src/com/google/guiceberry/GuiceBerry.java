@@ -21,6 +21,7 @@ import com.google.guiceberry.junit3.AutoTearDownGuiceBerry;
 import com.google.guiceberry.junit3.ManualTearDownGuiceBerry;
 import com.google.guiceberry.junit4.GuiceBerryRule;
 import com.google.guiceberry.testng.TestNgGuiceBerry;
+import com.google.inject.Module;
 
 /**
  * You won't have to deal with this class directly unless you are writing a test
@@ -56,6 +57,46 @@ public class GuiceBerry {
     return new TestCaseScaffolding(testDescription, guiceBerryEnvSelector, universe);
   }
   
+  /**
+   * Shuts down the given GuiceBerry Env, if it was ever created, e.g. once
+   * a test runner knows that no more tests will use it. The env will be
+   * created anew if a later test needs it.
+   *
+   * <p>This must not be called while tests using this env are running.
+   *
+   * @see GuiceBerryEnvShutdown
+   * @see UniverseShared
+   */
+  public void shutDownEnv(Class<? extends Module> guiceBerryEnvClass) {
+    universe.shutDownEnv(guiceBerryEnvClass);
+  }
+
+  /**
+   * Shuts down all the GuiceBerry Envs created so far, as per
+   * {@link #shutDownEnv}.
+   */
+  public void shutDownAllEnvs() {
+    universe.shutDownAllEnvs();
+  }
+
+  /**
+   * Registers {@code listener} to be told about what GuiceBerry does, in
+   * all GuiceBerry Envs.
+   *
+   * @see GuiceBerryListener
+   */
+  public void addListener(GuiceBerryListener listener) {
+    universe.addListener(listener);
+  }
+
+  /**
+   * Stops telling {@code listener} about what GuiceBerry does. It is ok to
+   * remove a listener that was never added.
+   */
+  public void removeListener(GuiceBerryListener listener) {
+    universe.removeListener(listener);
+  }
+
   /**
    * You won't need to deal with this interface unless you are writting an
    * adapter to a test framework. See {@link GuiceBerry}.
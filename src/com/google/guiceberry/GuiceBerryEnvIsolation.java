@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotate a GuiceBerry Env class with this to choose how isolated from each
+ * other the tests using it are, i.e. whether they share a single
+ * {@link com.google.inject.Injector} (and its singletons) or not. See
+ * {@link Level}.
+ *
+ * <p>Every injector of an env is a full-fledged one: its
+ * {@link GuiceBerryEnvMain} is called when it is created, and its
+ * {@link GuiceBerryEnvShutdown} when it is thrown away. So, e.g., servers
+ * started by envs that are not {@link Level#SHARED} must not use fixed ports.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GuiceBerryEnvIsolation {
+
+  Level value();
+
+  /**
+   * The number of injectors of a {@link Level#POOLED} env. Defaults to the
+   * number of available processors.
+   */
+  int poolSize() default 0;
+
+  enum Level {
+
+    /**
+     * All tests share a single injector. This is the default.
+     */
+    SHARED,
+
+    /**
+     * There are {@link GuiceBerryEnvIsolation#poolSize()} identical injectors
+     * (all built in parallel, when the env is first needed), and each test
+     * leases one of these for itself, waiting if they are all in use. Use this
+     * for envs whose tests change the state of singletons, but that still
+     * should run concurrently.
+     */
+    POOLED,
+
+    /**
+     * Each test class gets an injector of its own, which is thrown away
+     * once the class is done.
+     */
+    FRESH_PER_CLASS
+  }
+}
@@ -29,6 +29,8 @@ package com.google.guiceberry;
  * <p>Note that the same thing could be accomplished through a
  * {@link TestWrapper}, but it's more verbose, less elegant and less correct.
  * 
+ * <p>To start several things concurrently, see {@link AsyncGuiceBerryEnvMain}.
+ * 
  * <p>The name of the class alludes to the fact this is analogous to the section
  * of your production code's "main" method where, in a canonical Guice 
  * application, you start the server right after creating an 
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.Module;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotate a GuiceBerry Env class with this to make it a "derived" env of the
+ * given parent GuiceBerry Env. The parent's {@link com.google.inject.Injector}
+ * is built only once (as if it were used by a test), and the injector of
+ * each of its derived envs is a
+ * {@link com.google.inject.Injector#createChildInjector child injector} of
+ * it. All derived envs thus share the parent's singletons, and the servers
+ * started by its {@link GuiceBerryEnvMain}.
+ *
+ * <p>A derived env must not install {@link GuiceBerryModule} itself, since
+ * that is already done by its parent. Also note that, as with any Guice child
+ * injector, it can add bindings to the ones of its parent, but not override
+ * them. So, to make the most out of this, have the parent env leave unbound
+ * whatever its derived envs bind differently. The derived env's own
+ * {@link GuiceBerryEnvMain}, if any, is called when its injector is created;
+ * the parent's {@link GuiceBerryEnvMain} is not called again.
+ *
+ * <p>Derived envs are created in the {@link com.google.inject.Stage} of their
+ * parent, so {@link GuiceBerryEnvStage} only applies to the root of a
+ * hierarchy of envs.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GuiceBerryEnvParent {
+  Class<? extends Module> value();
+}
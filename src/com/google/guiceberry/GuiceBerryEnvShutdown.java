@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+/**
+ * If a GuiceBerry Env binds this interface, the implementing class's
+ * {@link #shutDown()} method will be called when that Env is shut down (see
+ * {@link GuiceBerry#shutDownEnv}), i.e. after its last test ran.
+ *
+ * <p>This is the counterpart of {@link GuiceBerryEnvMain}: use it, for
+ * example, to stop the servers started there.
+ */
+public interface GuiceBerryEnvShutdown {
+
+  /** @see GuiceBerryEnvShutdown */
+  void shutDown();
+
+}
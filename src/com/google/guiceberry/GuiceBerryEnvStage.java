@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.Stage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotate a GuiceBerry Env class with this to choose the {@link Stage} its
+ * {@link com.google.inject.Injector} is created in. E.g. in
+ * {@link Stage#DEVELOPMENT} (Guice's default) singletons are built lazily,
+ * which makes for a faster start for envs whose tests only use a few of
+ * them, while in {@link Stage#PRODUCTION} they are all built up front.
+ * {@link Stage#TOOL} is not supported, since its injectors can't build
+ * instances.
+ *
+ * <p>Much like with {@link DefaultEnvSelector#override}, the stage can also be
+ * set through {@link System} properties, which take precedence over this
+ * annotation:
+ *
+ * <ul>
+ *   <li>{@code GuiceBerryEnvStage_<env class name>} sets the stage for a
+ *     given env;
+ *   <li>{@code GuiceBerryEnvStage} sets the stage for all envs that neither
+ *     have this annotation nor the property above.
+ * </ul>
+ *
+ * <p>The time it took to create each env's injector (and to run its
+ * {@link GuiceBerryEnvMain}) is logged, so the effect of each stage choice
+ * can be measured.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GuiceBerryEnvStage {
+  Stage value();
+}
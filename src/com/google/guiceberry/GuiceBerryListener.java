@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDown;
+import com.google.inject.Module;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Observes what GuiceBerry does, e.g. to build profilers or metrics. Every
+ * event carries the {@link System#nanoTime()} it happened at.
+ *
+ * <p>Listeners are either registered for the whole JVM, through
+ * {@link GuiceBerry#addListener}, or for a single GuiceBerry Env, by binding
+ * this interface in it. The latter only get the events that happen once the
+ * env exists, i.e. from {@link #envCreationFinished} on, except for the
+ * {@link SetUpPhase#ENV} set-up phase and {@link #testClassScopeFinished}.
+ *
+ * <p>Listeners are called synchronously, possibly from many threads at once,
+ * so they should be fast and thread-safe. An exception thrown by a listener is
+ * logged, and otherwise ignored. When there are no listeners, GuiceBerry
+ * doesn't even read the time.
+ *
+ * <p>To only listen to some of the events, extend
+ * {@link GuiceBerryListenerAdapter}.
+ */
+public interface GuiceBerryListener {
+
+  /**
+   * The phases of setting up a test, in the order they happen.
+   */
+  enum SetUpPhase {
+    /**
+     * Getting the test's GuiceBerry Env injector, which includes creating the
+     * env the first time, and waiting for its {@link AsyncGuiceBerryEnvMain}.
+     */
+    ENV,
+    /** Running the env's {@link TestWrapper}. */
+    TEST_WRAPPER,
+    /** Building the env's {@link EagerTestScopedKeys}. */
+    EAGER_TEST_SCOPED_KEYS,
+    /** Injecting the test's members. */
+    MEMBER_INJECTION
+  }
+
+  /**
+   * Called when GuiceBerry starts creating the injector of {@code gbeClass}.
+   */
+  void envCreationStarted(Class<? extends Module> gbeClass, long nanoTime);
+
+  /**
+   * Called when GuiceBerry is done creating the injector of {@code gbeClass}
+   * (including running its {@link GuiceBerryEnvMain}), with the
+   * {@code failure} that prevented it, if any.
+   */
+  void envCreationFinished(Class<? extends Module> gbeClass, long nanoTime,
+      Throwable failure);
+
+  /**
+   * Called when a {@code phase} of setting up a test starts.
+   */
+  void setUpPhaseStarted(TestDescription testDescription, SetUpPhase phase, long nanoTime);
+
+  /**
+   * Called when a {@code phase} of setting up a test is over, whether it
+   * succeeded or not.
+   */
+  void setUpPhaseFinished(TestDescription testDescription, SetUpPhase phase, long nanoTime);
+
+  /**
+   * Called after each {@link TearDown} added to a test's
+   * {@link com.google.common.testing.TearDownAccepter} ran, with the
+   * {@code failure} it threw, if any.
+   */
+  void tearDownFinished(TestDescription testDescription, TearDown tearDown,
+      long startNanoTime, long endNanoTime, Throwable failure);
+
+  /**
+   * Called when a test's {@link TestScoped} or {@link TestPooled} (given by
+   * {@code scope}) scope is finished.
+   */
+  void testScopeFinished(TestDescription testDescription,
+      Class<? extends Annotation> scope, long nanoTime);
+
+  /**
+   * Called when the {@link TestClassScoped} scope of {@code testClass} is
+   * finished.
+   */
+  void testClassScopeFinished(Class<?> testClass, long nanoTime);
+}
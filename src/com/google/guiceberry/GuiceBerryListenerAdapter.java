@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDown;
+import com.google.inject.Module;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A {@link GuiceBerryListener} that ignores all events, to be extended by
+ * listeners that are only interested in some of them.
+ */
+public abstract class GuiceBerryListenerAdapter implements GuiceBerryListener {
+
+  public void envCreationStarted(Class<? extends Module> gbeClass, long nanoTime) {}
+
+  public void envCreationFinished(Class<? extends Module> gbeClass, long nanoTime,
+      Throwable failure) {}
+
+  public void setUpPhaseStarted(TestDescription testDescription, SetUpPhase phase,
+      long nanoTime) {}
+
+  public void setUpPhaseFinished(TestDescription testDescription, SetUpPhase phase,
+      long nanoTime) {}
+
+  public void tearDownFinished(TestDescription testDescription, TearDown tearDown,
+      long startNanoTime, long endNanoTime, Throwable failure) {}
+
+  public void testScopeFinished(TestDescription testDescription,
+      Class<? extends Annotation> scope, long nanoTime) {}
+
+  public void testClassScopeFinished(Class<?> testClass, long nanoTime) {}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDown;
+import com.google.guiceberry.GuiceBerryListener.SetUpPhase;
+import com.google.inject.Module;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An immutable set of {@link GuiceBerryListener}s, which dispatches events to
+ * all of them. Changing the listeners means building a new instance, so
+ * dispatching needs no locks, and, if there are no listeners, it doesn't
+ * even read the time.
+ */
+final class GuiceBerryListeners {
+
+  static final GuiceBerryListeners NONE = new GuiceBerryListeners(new GuiceBerryListener[0]);
+
+  private static final Logger logger = Logger.getLogger(GuiceBerryListeners.class.getName());
+
+  private final GuiceBerryListener[] listeners;
+
+  private GuiceBerryListeners(GuiceBerryListener[] listeners) {
+    this.listeners = listeners;
+  }
+
+  boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  /**
+   * Returns these listeners plus {@code listener} (unless it is
+   * {@code null}).
+   */
+  GuiceBerryListeners plus(GuiceBerryListener listener) {
+    if (listener == null) {
+      return this;
+    }
+    GuiceBerryListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+    result[listeners.length] = listener;
+    return new GuiceBerryListeners(result);
+  }
+
+  /**
+   * Returns these listeners minus {@code listener}.
+   */
+  GuiceBerryListeners minus(GuiceBerryListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        GuiceBerryListener[] result = new GuiceBerryListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, result, 0, i);
+        System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+        return new GuiceBerryListeners(result);
+      }
+    }
+    return this;
+  }
+
+  void envCreationStarted(Class<? extends Module> gbeClass) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.envCreationStarted(gbeClass, now);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void envCreationFinished(Class<? extends Module> gbeClass, Throwable failure) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.envCreationFinished(gbeClass, now, failure);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void setUpPhaseStarted(TestDescription testDescription, SetUpPhase phase) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.setUpPhaseStarted(testDescription, phase, now);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void setUpPhaseFinished(TestDescription testDescription, SetUpPhase phase) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.setUpPhaseFinished(testDescription, phase, now);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void tearDownFinished(TestDescription testDescription, TearDown tearDown,
+      long startNanoTime, Throwable failure) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.tearDownFinished(testDescription, tearDown, startNanoTime, now, failure);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void testScopeFinished(TestDescription testDescription, Class<? extends Annotation> scope) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.testScopeFinished(testDescription, scope, now);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  void testClassScopeFinished(Class<?> testClass) {
+    if (isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    for (GuiceBerryListener listener : listeners) {
+      try {
+        listener.testClassScopeFinished(testClass, now);
+      } catch (RuntimeException e) {
+        failed(listener, e);
+      }
+    }
+  }
+
+  private static void failed(GuiceBerryListener listener, RuntimeException e) {
+    logger.log(Level.WARNING, String.format(
+        "The GuiceBerryListener '%s' failed; ignoring it.", listener), e);
+  }
+}
@@ -16,9 +16,7 @@
 
 package com.google.guiceberry;
 
-import com.google.common.testing.TearDown;
 import com.google.common.testing.TearDownAccepter;
-import com.google.common.testing.TearDownStack;
 import com.google.guiceberry.GuiceBerryUniverse;
 import com.google.guiceberry.TestScope;
 import com.google.inject.AbstractModule;
@@ -27,7 +25,8 @@ import com.google.inject.Scope;
 
 /**
  * This Module provides the basic bindings required by GuiceBerry, namely
- * {@link TestId}, {@link TearDownAccepter} and the {@link TestScoped} scope.
+ * {@link TestId}, {@link TearDownAccepter} and the {@link TestScoped},
+ * {@link TestClassScoped} and {@link TestPooled} scopes.
  * Without these bindinds, GuiceBerry will fail to set up. Therefore, this
  * module is required to be installed by all GuiceBerry Envs (see
  * {@link GuiceBerryEnvSelector}).
@@ -63,24 +62,36 @@ public class GuiceBerryModule extends AbstractModule {
     bind(TestScope.class).toInstance(testScope);
     bindScope(TestScoped.class, testScope);
     bind(TearDownAccepter.class).to(ToTearDown.class);
+    TestClassScope testClassScope = new TestClassScope(universe);
+    bind(TestClassScope.class).toInstance(testClassScope);
+    bindScope(TestClassScoped.class, testClassScope);
+    TestPoolScope testPoolScope = new TestPoolScope(universe);
+    bind(TestPoolScope.class).toInstance(testPoolScope);
+    bind(TestPoolMonitor.class).toInstance(testPoolScope);
+    bindScope(TestPooled.class, testPoolScope);
+    UniverseSharedScope universeSharedScope = new UniverseSharedScope(universe);
+    bind(UniverseSharedScope.class).toInstance(universeSharedScope);
+    bindScope(UniverseShared.class, universeSharedScope);
+  }
+
+  @Provides
+  TestClassTearDownAccepter getTestClassTearDownAccepter(TestClassScope testClassScope) {
+    return testClassScope.currentTearDownAccepter();
   }
 
   @Provides
   @TestScoped
   ToTearDown getToTearDown() {
-    return new ToTearDown() {
-      TearDownStack delegate = new TearDownStack();
-      
-      public void addTearDown(TearDown tearDown) {
-        delegate.addTearDown(tearDown);
-      }
-    
-      public void runTearDown() {
-        delegate.runTearDown();
-      }
-    };
+    return new TimedTearDownStack(
+        universe, universe.currentTestDescriptionThreadLocal.get());
   }
   
+  @Provides
+  @TestScoped
+  TestDescription getTestDescription() {
+    return universe.currentTestDescriptionThreadLocal.get();
+  }
+
   @Provides
   @TestScoped
   TestId getTestId() {
@@ -88,7 +99,17 @@ public class GuiceBerryModule extends AbstractModule {
   }
   
   interface ToTearDown extends TearDownAccepter {
+    /**
+     * Runs all the tear downs, except for the {@link DeferrableTearDown}s.
+     */
     void runTearDown();
+
+    boolean hasDeferredTearDowns();
+
+    /**
+     * Runs the {@link DeferrableTearDown}s set aside by {@link #runTearDown()}.
+     */
+    void runDeferredTearDowns();
   }
   
   @Override
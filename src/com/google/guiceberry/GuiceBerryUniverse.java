@@ -16,11 +16,16 @@
 package com.google.guiceberry;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.testing.TearDown;
 import com.google.common.testing.TearDownAccepter;
 import com.google.common.testing.TearDownStack;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.guiceberry.GuiceBerry.GuiceBerryWrapper;
+import com.google.guiceberry.GuiceBerryListener.SetUpPhase;
 import com.google.guiceberry.GuiceBerryModule.ToTearDown;
 import com.google.inject.AbstractModule;
 import com.google.inject.ConfigurationException;
@@ -29,10 +34,21 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Stage;
 import com.google.inject.testing.guiceberry.GuiceBerryEnv;
 import com.google.inject.testing.guiceberry.junit3.GuiceBerryJunit3;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * @author Luiz-Otavio "Z" Zorzella
@@ -40,11 +56,286 @@ import java.util.Map;
 class GuiceBerryUniverse {
 
   static final GuiceBerryUniverse INSTANCE = new GuiceBerryUniverse();
+
+  static final String STAGE_SYSTEM_PROPERTY_NAME = "GuiceBerryEnvStage";
+
+  private static final Logger logger = Logger.getLogger(GuiceBerryUniverse.class.getName());
   
   final Map<Class<? extends Module>, Injector> gbeClassToInjectorMap = Maps.newHashMap();
+
+  /**
+   * The locks held while creating the injector of each GuiceBerry Env (see
+   * {@link #getCreationLock}). Guarded by {@link #gbeClassToInjectorMap}.
+   */
+  private final Map<Class<? extends Module>, Object> gbeClassToCreationLockMap =
+      Maps.newHashMap();
+
+  /**
+   * The {@link InjectorPool}s of the GuiceBerry Envs that are not
+   * {@link GuiceBerryEnvIsolation.Level#SHARED}. Guarded by
+   * {@link #gbeClassToInjectorMap}.
+   */
+  private final Map<Class<? extends Module>, InjectorPool> gbeClassToInjectorPoolMap =
+      Maps.newHashMap();
   
   public final InheritableThreadLocal<TestDescription> currentTestDescriptionThreadLocal =
     new InheritableThreadLocal<TestDescription>();
+
+  private ExecutorService workerPool;
+
+  private DeferredTearDownQueue deferredTearDownQueue;
+
+  private final UniverseSharedRegistry universeSharedRegistry = new UniverseSharedRegistry();
+
+  /**
+   * The {@link EnvStartup} of each injector whose env binds an
+   * {@link AsyncGuiceBerryEnvMain}. Keys are weak, so that the injectors of
+   * envs that were shut down are not kept alive by this map.
+   */
+  private static final Map<Injector, EnvStartup> injectorToEnvStartupMap =
+      new MapMaker().weakKeys().makeMap();
+
+  /**
+   * The {@link GuiceBerryListener} of each injector whose env binds one.
+   * Keys are weak, as in {@link #injectorToEnvStartupMap}.
+   */
+  private static final Map<Injector, GuiceBerryListener> injectorToEnvListenerMap =
+      new MapMaker().weakKeys().makeMap();
+
+  /**
+   * The listeners added through {@link #addListener}. Replaced, rather than
+   * changed, so that reading it needs no lock.
+   */
+  private volatile GuiceBerryListeners listeners = GuiceBerryListeners.NONE;
+
+  /**
+   * Returns the pool of daemon threads GuiceBerry uses to do work in the
+   * background (e.g. to build {@link EagerTestScopedKeys}).
+   */
+  synchronized ExecutorService getWorkerPool() {
+    if (workerPool == null) {
+      workerPool = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("GuiceBerry worker %d")
+          .build());
+    }
+    return workerPool;
+  }
+
+  /**
+   * Returns the queue of {@link DeferrableTearDown}s waiting to run.
+   */
+  synchronized DeferredTearDownQueue getDeferredTearDownQueue() {
+    if (deferredTearDownQueue == null) {
+      deferredTearDownQueue = new DeferredTearDownQueue(this);
+    }
+    return deferredTearDownQueue;
+  }
+
+  /**
+   * Returns the lock to hold while creating the injector of the
+   * {@code gbeClass} GuiceBerry Env. Envs are created under locks of their
+   * own, rather than under the {@link #gbeClassToInjectorMap} one, so that
+   * the tests of different envs don't have to wait for each other's envs to
+   * be created.
+   */
+  Object getCreationLock(Class<? extends Module> gbeClass) {
+    synchronized (gbeClassToInjectorMap) {
+      Object result = gbeClassToCreationLockMap.get(gbeClass);
+      if (result == null) {
+        result = new Object();
+        gbeClassToCreationLockMap.put(gbeClass, result);
+      }
+      return result;
+    }
+  }
+
+  synchronized void addListener(GuiceBerryListener listener) {
+    listeners = listeners.plus(Preconditions.checkNotNull(listener));
+  }
+
+  synchronized void removeListener(GuiceBerryListener listener) {
+    listeners = listeners.minus(listener);
+  }
+
+  GuiceBerryListeners getListeners() {
+    return listeners;
+  }
+
+  /**
+   * Returns the {@link #getListeners()} plus the {@link GuiceBerryListener}
+   * bound by the env of {@code injector}, if any.
+   */
+  GuiceBerryListeners getListeners(Injector injector) {
+    return listeners.plus(injectorToEnvListenerMap.get(injector));
+  }
+
+  UniverseSharedRegistry getUniverseSharedRegistry() {
+    return universeSharedRegistry;
+  }
+
+  /**
+   * Returns the injector the test given by {@code testDescription} should
+   * use: {@code injector} itself (i.e. the one in the
+   * {@link #gbeClassToInjectorMap}) for a
+   * {@link GuiceBerryEnvIsolation.Level#SHARED} env, or one leased from the
+   * env's {@link InjectorPool} otherwise.
+   */
+  Injector leaseInjector(Class<? extends Module> gbeClass, Injector injector,
+      TestDescription testDescription) {
+    InjectorPool pool = getInjectorPool(gbeClass);
+    if (pool == null) {
+      return injector;
+    }
+    return pool.lease(testDescription);
+  }
+
+  /**
+   * Gives back an injector obtained through {@link #leaseInjector}.
+   */
+  void releaseInjector(Class<? extends Module> gbeClass, Injector injector,
+      TestDescription testDescription) {
+    InjectorPool pool = getInjectorPool(gbeClass);
+    if (pool != null) {
+      pool.release(testDescription, injector);
+    }
+  }
+
+  InjectorPool getInjectorPool(Class<? extends Module> gbeClass) {
+    synchronized (gbeClassToInjectorMap) {
+      return gbeClassToInjectorPoolMap.get(gbeClass);
+    }
+  }
+
+  /**
+   * Shuts down the given GuiceBerry Env (and all its derived envs, see
+   * {@link GuiceBerryEnvParent}), if it was ever created: runs all
+   * pending {@link DeferrableTearDown}s, calls its
+   * {@link GuiceBerryEnvShutdown}, finishes its {@link TestClassScoped}s and
+   * releases its {@link UniverseShared} instances. The env will be created
+   * anew if another test needs it.
+   *
+   * <p>This must not be called while tests using this env are running.
+   *
+   * @throws RuntimeException if any of these steps failed. All steps are
+   *     taken nonetheless.
+   */
+  void shutDownEnv(Class<? extends Module> gbeClass) {
+    Set<Injector> toShutDown = Sets.newLinkedHashSet();
+    synchronized (gbeClassToInjectorMap) {
+      removeEnvAndDerivedEnvs(gbeClass, toShutDown);
+    }
+    if (toShutDown.isEmpty()) {
+      return;
+    }
+    DeferredTearDownQueue deferredTearDownQueue;
+    synchronized (this) {
+      deferredTearDownQueue = this.deferredTearDownQueue;
+    }
+    if (deferredTearDownQueue != null) {
+      deferredTearDownQueue.flush();
+    }
+    RuntimeException failure = null;
+    for (Injector injector : toShutDown) {
+      try {
+        shutDown(injector);
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw new RuntimeException(String.format(
+          "Error while shutting down the GuiceBerry Env '%s'.", gbeClass.getName()),
+          failure);
+    }
+  }
+
+  /**
+   * Calls {@link #shutDownEnv} for every env created so far.
+   *
+   * @throws RuntimeException if shutting down any of the envs failed. All
+   *     envs are shut down nonetheless.
+   */
+  void shutDownAllEnvs() {
+    List<Class<? extends Module>> gbeClasses;
+    synchronized (gbeClassToInjectorMap) {
+      gbeClasses = Lists.newArrayList(gbeClassToInjectorMap.keySet());
+    }
+    RuntimeException failure = null;
+    for (Class<? extends Module> gbeClass : gbeClasses) {
+      try {
+        shutDownEnv(gbeClass);
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Removes {@code gbeClass}, and all envs derived from it, from the
+   * {@link #gbeClassToInjectorMap}, adding their injectors to
+   * {@code removed}, derived envs first.
+   */
+  private void removeEnvAndDerivedEnvs(Class<? extends Module> gbeClass,
+      Set<Injector> removed) {
+    Injector injector = gbeClassToInjectorMap.get(gbeClass);
+    if (injector == null) {
+      return;
+    }
+    for (Map.Entry<Class<? extends Module>, Injector> entry
+        : Lists.newArrayList(gbeClassToInjectorMap.entrySet())) {
+      if ((injector != BOGUS_INJECTOR) && (entry.getValue().getParent() == injector)) {
+        removeEnvAndDerivedEnvs(entry.getKey(), removed);
+      }
+    }
+    gbeClassToInjectorMap.remove(gbeClass);
+    InjectorPool pool = gbeClassToInjectorPoolMap.remove(gbeClass);
+    if (pool != null) {
+      // The pool owns all the env's injectors that are still alive
+      pool.logStats();
+      removed.addAll(pool.getInjectors());
+    } else if (injector != BOGUS_INJECTOR) {
+      removed.add(injector);
+    }
+  }
+
+  static void shutDown(Injector injector) {
+    EnvStartup startup = injectorToEnvStartupMap.get(injector);
+    if (startup != null) {
+      // Don't stop servers while they are still being started
+      startup.awaitQuietly();
+    }
+    GuiceBerryEnvShutdown guiceBerryEnvShutdown =
+      TestCaseScaffolding.getInstanceIfHasOwnBinding(injector, GuiceBerryEnvShutdown.class);
+    try {
+      if (guiceBerryEnvShutdown != null) {
+        guiceBerryEnvShutdown.shutDown();
+      }
+    } finally {
+      // The scopes are bound by GuiceBerryModule, so they belong to the
+      // root of a hierarchy of envs
+      if (injector.getParent() == null) {
+        try {
+          injector.getInstance(TestClassScope.class).finishAllScopes();
+        } finally {
+          try {
+            injector.getInstance(TestPoolScope.class).closeIdleInstances();
+          } finally {
+            if (TestCaseScaffolding.hasOwnBinding(injector, UniverseSharedScope.class)) {
+              injector.getInstance(UniverseSharedScope.class).release();
+            }
+          }
+        }
+      }
+    }
+  }
   
   /**
    * If something goes wrong trying to get an Injector instance for some 
@@ -59,6 +350,8 @@ class GuiceBerryUniverse {
    */
   private static final Class<?>[] REQUIRED_BINDINGS = {
       TestScope.class,
+      TestClassScope.class,
+      TestPoolScope.class,
       TearDownAccepter.class,
       ToTearDown.class,
       TestId.class
@@ -71,8 +364,12 @@ class GuiceBerryUniverse {
     private final GuiceBerryUniverse universe;
 
     private Injector injector;
+
+    private Class<? extends Module> gbeClass;
     
     private final TearDownStack stack = new TearDownStack();
+
+    private volatile GuiceBerryListeners listeners = GuiceBerryListeners.NONE;
     
     public TestCaseScaffolding(
         TestDescription testDescription,
@@ -96,25 +393,126 @@ class GuiceBerryUniverse {
         guiceBerryEnvSelector.guiceBerryEnvToUse(testDescription);
       
       universe.currentTestDescriptionThreadLocal.set(testDescription);
-      injector = getAndSetInjector(gbeClass);
+      GuiceBerryListeners universeListeners = universe.getListeners();
+      universeListeners.setUpPhaseStarted(testDescription, SetUpPhase.ENV);
+      try {
+        injector = universe.leaseInjector(gbeClass, getAndSetInjector(gbeClass), testDescription);
+        this.gbeClass = gbeClass;
+
+        stack.addTearDown(new TearDown() {
+          public void tearDown() throws Exception {
+            doTearDown();
+          }
+        });
+
+        injector.getInstance(TestClassScope.class).enteringTest(testDescription);
+
+        stack.addTearDown(new TearDown() {
+          public void tearDown() throws Exception {
+            ToTearDown toTearDown = injector.getInstance(ToTearDown.class);
+            toTearDown.runTearDown();
+          }
+        });
+
+        awaitEnvStartups(injector);
+      } finally {
+        universeListeners.setUpPhaseFinished(testDescription, SetUpPhase.ENV);
+      }
+      listeners = universe.getListeners(injector);
+
+      TearDownAccepter accepter = wrappedGetInstance(injector, TearDownAccepter.class, gbeClass);
+      if (accepter instanceof TimedTearDownStack) {
+        ((TimedTearDownStack) accepter).setListeners(listeners);
+      }
+
+      listeners.setUpPhaseStarted(testDescription, SetUpPhase.TEST_WRAPPER);
+      try {
+        buildTestWrapperInstance(injector).toRunBeforeTest();
+      } finally {
+        listeners.setUpPhaseFinished(testDescription, SetUpPhase.TEST_WRAPPER);
+      }
+
+      listeners.setUpPhaseStarted(testDescription, SetUpPhase.EAGER_TEST_SCOPED_KEYS);
+      try {
+        buildEagerTestScopedKeys(injector);
+      } finally {
+        listeners.setUpPhaseFinished(testDescription, SetUpPhase.EAGER_TEST_SCOPED_KEYS);
+      }
 
-      stack.addTearDown(new TearDown() {
-        public void tearDown() throws Exception {
-          doTearDown();
+      listeners.setUpPhaseStarted(testDescription, SetUpPhase.MEMBER_INJECTION);
+      try {
+        injectMembersIntoTest(gbeClass, injector);
+      } finally {
+        listeners.setUpPhaseFinished(testDescription, SetUpPhase.MEMBER_INJECTION);
+      }
+    }
+
+    /**
+     * Waits for the components of {@code injector}'s (and its parents')
+     * {@link AsyncGuiceBerryEnvMain}s this test needs (see
+     * {@link AwaitEnvComponents}) to be ready. A parent's components are all
+     * waited for, since they may well be needed by the child's.
+     */
+    private void awaitEnvStartups(Injector injector) {
+      AwaitEnvComponents annotation =
+        testDescription.getTestCaseClass().getAnnotation(AwaitEnvComponents.class);
+      String[] components = (annotation == null) ? null : annotation.value();
+      long start = System.nanoTime();
+      boolean waited = false;
+      for (Injector current = injector; current != null; current = current.getParent()) {
+        EnvStartup startup = injectorToEnvStartupMap.get(current);
+        if (startup != null) {
+          startup.await((current == injector) ? components : null);
+          waited = true;
         }
-      });
-      
-      stack.addTearDown(new TearDown() {
-        public void tearDown() throws Exception {
-          ToTearDown toTearDown = injector.getInstance(ToTearDown.class);
-          toTearDown.runTearDown();
+      }
+      if (waited) {
+        logger.fine(String.format("Test '%s' waited %d ms for its GuiceBerry Env to start.",
+            testDescription.getName(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+      }
+    }
+
+    /**
+     * If the GuiceBerry Env binds {@link EagerTestScopedKeys}, builds these
+     * keys concurrently in the {@link GuiceBerryUniverse#getWorkerPool()}, and
+     * waits until they are all done. Failures are ignored here, since they
+     * will resurface when the test's members are injected.
+     */
+    private void buildEagerTestScopedKeys(final Injector injector) {
+      EagerTestScopedKeys eagerTestScopedKeys =
+        getInstanceIfHasBinding(injector, EagerTestScopedKeys.class);
+      if (eagerTestScopedKeys == null) {
+        return;
+      }
+      Set<Key<?>> keys =
+        eagerTestScopedKeys.keysFor(injector, testDescription.getTestCaseClass());
+      if (keys.size() < 2) {
+        // Nothing to be gained
+        return;
+      }
+      List<Future<?>> futures = Lists.newArrayList();
+      for (final Key<?> key : keys) {
+        futures.add(universe.getWorkerPool().submit(new Runnable() {
+          public void run() {
+            universe.currentTestDescriptionThreadLocal.set(testDescription);
+            try {
+              injector.getInstance(key);
+            } finally {
+              universe.currentTestDescriptionThreadLocal.remove();
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException ignored) {
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
         }
-      });
-      
-      TearDownAccepter accepter = wrappedGetInstance(injector, TearDownAccepter.class, gbeClass);
-      buildTestWrapperInstance(injector).toRunBeforeTest();
-      
-      injectMembersIntoTest(gbeClass, injector); 
+      }
     }
 
     /**
@@ -169,6 +567,7 @@ class GuiceBerryUniverse {
     
       try {
         injector.injectMembers(testDescription.getTestCase());
+        LazyMemberInjector.injectLazyMembers(injector, testDescription.getTestCase());
       } catch (ConfigurationException e) {
         String msg = String.format("Binding error in the GuiceBerry Env '%s': '%s'.",
             gbeClass.getName(), e.getMessage());
@@ -197,13 +596,7 @@ class GuiceBerryUniverse {
      * {@link #gbeClassToInjectorMap}.
      */
     private Injector getAndSetInjector(final Class<? extends Module> gbeClass) {
-      synchronized (universe.gbeClassToInjectorMap) {
-        if (!universe.gbeClassToInjectorMap.containsKey(gbeClass)) {
-          foundGbeForTheFirstTime(gbeClass);  
-        }
-      }
-      
-      Injector result = universe.gbeClassToInjectorMap.get(gbeClass);
+      Injector result = getOrCreateInjector(gbeClass);
       if (result == BOGUS_INJECTOR) {
         throw new RuntimeException(String.format(
             "Skipping '%s' GuiceBerryEnv which failed previously during injector creation.",
@@ -212,6 +605,33 @@ class GuiceBerryUniverse {
       return result; 
     }
 
+    /**
+     * Returns the injector in the {@link #gbeClassToInjectorMap} for the
+     * given {@code gbeClass}, creating it first (while holding its
+     * {@link GuiceBerryUniverse#getCreationLock}) if needs be.
+     */
+    private Injector getOrCreateInjector(Class<? extends Module> gbeClass) {
+      synchronized (universe.gbeClassToInjectorMap) {
+        Injector result = universe.gbeClassToInjectorMap.get(gbeClass);
+        if (result != null) {
+          return result;
+        }
+      }
+      synchronized (universe.getCreationLock(gbeClass)) {
+        synchronized (universe.gbeClassToInjectorMap) {
+          Injector result = universe.gbeClassToInjectorMap.get(gbeClass);
+          if (result != null) {
+            // Some other thread created it while we waited for the lock
+            return result;
+          }
+        }
+        foundGbeForTheFirstTime(gbeClass);
+        synchronized (universe.gbeClassToInjectorMap) {
+          return universe.gbeClassToInjectorMap.get(gbeClass);
+        }
+      }
+    }
+
     private void checkPreviousTestCalledTearDown(TestDescription testCase) {
       TestDescription previousTestCase = universe.currentTestDescriptionThreadLocal.get();
       
@@ -228,28 +648,136 @@ class GuiceBerryUniverse {
     
     private void foundGbeForTheFirstTime(final Class<? extends Module> gbeClass) {
       Injector result = BOGUS_INJECTOR;
+      InjectorPool pool = null;
+      Throwable failure = null;
+      GuiceBerryListeners universeListeners = universe.getListeners();
+      universeListeners.envCreationStarted(gbeClass);
+      try {
+        checkNoGbeParentCycle(gbeClass);
+        GuiceBerryEnvParent parentAnnotation = gbeClass.getAnnotation(GuiceBerryEnvParent.class);
+        final Injector parent = (parentAnnotation == null)
+            ? null : getParentInjector(gbeClass, parentAnnotation.value());
+        Injector injector = createInjector(gbeClass, parent);
+        GuiceBerryEnvIsolation isolation = gbeClass.getAnnotation(GuiceBerryEnvIsolation.class);
+        if ((isolation != null) && (isolation.value() != GuiceBerryEnvIsolation.Level.SHARED)) {
+          pool = InjectorPool.create(
+              universe, gbeClass, isolation, injector, new Callable<Injector>() {
+                public Injector call() {
+                  return createInjector(gbeClass, parent);
+                }
+              });
+        }
+        result = injector;
+      } catch (RuntimeException e) {
+        failure = e;
+        throw e;
+      } catch (Error e) {
+        failure = e;
+        throw e;
+      } finally {
+        // This is in the finally block to ensure that BOGUS_INJECTOR
+        // is put in the map if things go bad.
+        synchronized (universe.gbeClassToInjectorMap) {
+          if (pool != null) {
+            universe.gbeClassToInjectorPoolMap.put(gbeClass, pool);
+          }
+          universe.gbeClassToInjectorMap.put(gbeClass, result);
+        }
+        GuiceBerryListeners listeners = (result == BOGUS_INJECTOR)
+            ? universeListeners : universeListeners.plus(injectorToEnvListenerMap.get(result));
+        listeners.envCreationFinished(gbeClass, failure);
+      }
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} if following the
+     * {@link GuiceBerryEnvParent}s of {@code gbeClass} leads back to an env
+     * already seen. This is checked up front, so that envs are always created
+     * (and their {@link GuiceBerryUniverse#getCreationLock}s taken) from child
+     * to parent, which rules out deadlocks between threads creating envs of
+     * the same hierarchy.
+     */
+    private static void checkNoGbeParentCycle(Class<? extends Module> gbeClass) {
+      Set<Class<? extends Module>> seen = Sets.newHashSet();
+      seen.add(gbeClass);
+      Class<? extends Module> current = gbeClass;
+      GuiceBerryEnvParent parentAnnotation;
+      while ((parentAnnotation = current.getAnnotation(GuiceBerryEnvParent.class)) != null) {
+        Class<? extends Module> parentClass = parentAnnotation.value();
+        if (!seen.add(parentClass)) {
+          throw new IllegalArgumentException(String.format(
+              "The GuiceBerry Env '%s' can't have '%s' as its @%s, since that "
+              + "makes for a cycle.",
+              current.getName(), parentClass.getName(),
+              GuiceBerryEnvParent.class.getSimpleName()));
+        }
+        current = parentClass;
+      }
+    }
+
+    /**
+     * Creates a new injector for the {@code gbeClass} GuiceBerry Env (as a
+     * child of {@code parent}, unless it is {@code null}), and calls its
+     * {@link GuiceBerryEnvMain}.
+     */
+    static Injector createInjector(Class<? extends Module> gbeClass, Injector parent) {
       try {
         Module gbeInstance = createGbeInstanceFromClass(gbeClass);
-        Injector injector = Guice.createInjector(gbeInstance);
+        Injector injector;
+        Stage stage;
+        long start;
+        if (parent == null) {
+          stage = stageFor(gbeClass);
+          start = System.nanoTime();
+          injector = Guice.createInjector(stage, gbeInstance);
+        } else {
+          stage = parent.getInstance(Stage.class);
+          start = System.nanoTime();
+          injector = parent.createChildInjector(gbeInstance);
+        }
+        long injectorCreated = System.nanoTime();
         ensureBasicBindingsExist(injector, gbeClass);
-        callGbeMainIfBound(injector);
+        GuiceBerryListener envListener =
+          getInstanceIfHasBinding(injector, GuiceBerryListener.class);
+        if (envListener != null) {
+          injectorToEnvListenerMap.put(injector, envListener);
+        }
+        callGbeMainIfBound(injector, gbeClass);
+        logger.info(String.format(
+            "Created the injector for the GuiceBerry Env '%s' in %s stage in %d ms; "
+            + "its GuiceBerryEnvMain took %d ms.",
+            gbeClass.getName(), stage,
+            TimeUnit.NANOSECONDS.toMillis(injectorCreated - start),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - injectorCreated)));
+        warmUpIfBound(injector, gbeClass);
         // We don't actually use the test wrapper here, but we make sure we can
         // get an instance (i.e. we fail fast).
         buildTestWrapperInstance(injector);
-        result = injector;
+        return injector;
       } catch (CreationException e) {
         if (e.getMessage().contains("No scope is bound to " + TestScoped.class.getName())) {
           throwAppropriateExceptionOnMissingRequiredBindings(gbeClass);
-        } else {
-          throw e;
         }
-      } finally {
-        // This is in the finally block to ensure that BOGUS_INJECTOR
-        // is put in the map if things go bad.
-        universe.gbeClassToInjectorMap.put(gbeClass, result);
+        throw e;
       }
     }
 
+    /**
+     * Returns the injector of the {@code parentClass} GuiceBerry Env, creating
+     * it if this is the first time it is needed.
+     */
+    private Injector getParentInjector(Class<? extends Module> gbeClass,
+        Class<? extends Module> parentClass) {
+      Injector result = getOrCreateInjector(parentClass);
+      if (result == BOGUS_INJECTOR) {
+        throw new RuntimeException(String.format(
+            "Skipping '%s' GuiceBerryEnv, since its @%s '%s' failed during injector creation.",
+            gbeClass.getName(), GuiceBerryEnvParent.class.getSimpleName(),
+            parentClass.getName()));
+      }
+      return result;
+    }
+
     private static TestWrapper buildTestWrapperInstance(Injector injector) {
       TestWrapper result = NoOpTestScopeListener.NO_OP_INSTANCE;
       try {
@@ -289,7 +817,20 @@ class GuiceBerryUniverse {
       };
     }
 
+    /**
+     * Returns true if {@code clazz} is explicitly bound by {@code injector}
+     * or by any of its parents (see {@link GuiceBerryEnvParent}).
+     */
     private static boolean hasBinding(Injector injector, Class<?> clazz) {
+      for (Injector current = injector; current != null; current = current.getParent()) {
+        if (hasOwnBinding(current, clazz)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static boolean hasOwnBinding(Injector injector, Class<?> clazz) {
       return injector.getBindings().get(Key.get(clazz)) != null;
     }
 
@@ -299,6 +840,17 @@ class GuiceBerryUniverse {
       }
       return null;
     }
+
+    /**
+     * Like {@link #getInstanceIfHasBinding}, but ignores the bindings of
+     * {@code injector}'s parents.
+     */
+    private static <T> T getInstanceIfHasOwnBinding(Injector injector, Class<T> clazz) {
+      if (hasOwnBinding(injector, clazz)) {
+        return injector.getInstance(clazz);
+      }
+      return null;
+    }
     
     
     private static boolean hasDeprecatedTestScopeListenerBinding(Injector injector) {
@@ -309,12 +861,19 @@ class GuiceBerryUniverse {
       return hasBinding(injector, TestWrapper.class);
     }
 
-    private static void callGbeMainIfBound(Injector injector) {
+    /**
+     * Calls the {@link GuiceBerryEnvMain} and {@link AsyncGuiceBerryEnvMain}
+     * of the given {@code injector}, if any. The ones of its parents (see
+     * {@link GuiceBerryEnvParent}) were already called when these were
+     * created.
+     */
+    private static void callGbeMainIfBound(Injector injector,
+        Class<? extends Module> gbeClass) {
       com.google.inject.testing.guiceberry.GuiceBerryEnvMain deprecatedGuiceBerryEnvMain = 
-        getInstanceIfHasBinding(injector, com.google.inject.testing.guiceberry.GuiceBerryEnvMain.class);
+        getInstanceIfHasOwnBinding(injector, com.google.inject.testing.guiceberry.GuiceBerryEnvMain.class);
 
       GuiceBerryEnvMain guiceBerryEnvMain = 
-        getInstanceIfHasBinding(injector, GuiceBerryEnvMain.class);
+        getInstanceIfHasOwnBinding(injector, GuiceBerryEnvMain.class);
       
       if ((deprecatedGuiceBerryEnvMain != null) && (guiceBerryEnvMain != null)) {
         throw new RuntimeException(String.format(
@@ -331,6 +890,68 @@ class GuiceBerryUniverse {
       if (guiceBerryEnvMain != null) {
         guiceBerryEnvMain.run();
       }
+
+      AsyncGuiceBerryEnvMain asyncGuiceBerryEnvMain =
+        getInstanceIfHasOwnBinding(injector, AsyncGuiceBerryEnvMain.class);
+      if (asyncGuiceBerryEnvMain != null) {
+        EnvStartup startup = new EnvStartup(gbeClass.getName());
+        injectorToEnvStartupMap.put(injector, startup);
+        try {
+          asyncGuiceBerryEnvMain.start(startup);
+        } finally {
+          startup.seal();
+        }
+      }
+    }
+
+    /**
+     * Runs the {@link EnvWarmup} of the given {@code injector}, if any, once
+     * all the components of its {@link AsyncGuiceBerryEnvMain} are ready.
+     */
+    private static void warmUpIfBound(Injector injector, Class<? extends Module> gbeClass) {
+      EnvWarmup warmup = getInstanceIfHasOwnBinding(injector, EnvWarmup.class);
+      if (warmup == null) {
+        return;
+      }
+      EnvStartup startup = injectorToEnvStartupMap.get(injector);
+      if (startup != null) {
+        startup.await(null);
+      }
+      new EnvWarmupRunner().run(gbeClass.getName(), warmup);
+    }
+
+    /**
+     * Returns the {@link Stage} to create the injector of {@code gbeClass} in.
+     * See {@link GuiceBerryEnvStage}.
+     */
+    static Stage stageFor(Class<? extends Module> gbeClass) {
+      Stage result;
+      String stageName = System.getProperty(
+          STAGE_SYSTEM_PROPERTY_NAME + "_" + gbeClass.getName());
+      GuiceBerryEnvStage annotation = gbeClass.getAnnotation(GuiceBerryEnvStage.class);
+      if ((stageName == null) && (annotation != null)) {
+        result = annotation.value();
+      } else {
+        if (stageName == null) {
+          stageName = System.getProperty(STAGE_SYSTEM_PROPERTY_NAME, Stage.DEVELOPMENT.name());
+        }
+        try {
+          result = Stage.valueOf(stageName);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException(String.format(
+              "'%s' is not a valid Guice Stage (one of %s), and it is being given "
+              + "as the stage of the GuiceBerry Env '%s'.",
+              stageName, Arrays.toString(Stage.values()), gbeClass.getName()), e);
+        }
+      }
+      if (result == Stage.TOOL) {
+        // A TOOL stage injector can't build instances, so no test could use it
+        throw new IllegalArgumentException(String.format(
+            "The GuiceBerry Env '%s' can't be created in %s stage, since tests "
+            + "need an injector that builds instances.",
+            gbeClass.getName(), Stage.TOOL));
+      }
+      return result;
     }
 
     private static Module createGbeInstanceFromClass(final Class<? extends Module> gbeClass) {
@@ -374,8 +995,39 @@ class GuiceBerryUniverse {
             + ".setUp()"); 
         throw new RuntimeException(msg); 
       }
+      final ToTearDown toTearDown = injector.getInstance(ToTearDown.class);
       universe.currentTestDescriptionThreadLocal.remove();
-      injector.getInstance(TestScope.class).finishScope(testDescription);    
+      injector.getInstance(TestClassScope.class).exitingTest(testDescription);
+      if (!toTearDown.hasDeferredTearDowns()) {
+        finishScopes();
+        return;
+      }
+      // The test's scopes are only finished (and its injector released)
+      // after its deferred tear downs ran, since these may well use its
+      // @TestScoped instances
+      universe.getDeferredTearDownQueue().enqueue(testDescription, new Runnable() {
+        public void run() {
+          try {
+            toTearDown.runDeferredTearDowns();
+          } finally {
+            finishScopes();
+          }
+        }
+      });
+    }
+
+    private void finishScopes() {
+      try {
+        injector.getInstance(TestPoolScope.class).finishScope(testDescription);
+      } finally {
+        listeners.testScopeFinished(testDescription, TestPooled.class);
+        try {
+          injector.getInstance(TestScope.class).finishScope(testDescription);
+        } finally {
+          listeners.testScopeFinished(testDescription, TestScoped.class);
+          universe.releaseInjector(gbeClass, injector, testDescription);
+        }
+      }
     }
   }
 
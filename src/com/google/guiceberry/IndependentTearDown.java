@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDown;
+
+/**
+ * A {@link TearDown} that does not depend on any other tear down of the same
+ * test (nor do any of them depend on it). When added to GuiceBerry's
+ * {@link com.google.common.testing.TearDownAccepter}, it is run in a
+ * background thread, in parallel with the test's other tear downs, rather than
+ * in the usual last-in-first-out order.
+ *
+ * <p>Use this for slow and self-contained clean ups, such as closing a driver
+ * or flushing a server.
+ */
+public interface IndependentTearDown extends TearDown {}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The injectors of a GuiceBerry Env that is not
+ * {@link GuiceBerryEnvIsolation.Level#SHARED}, which are leased to one test
+ * at a time.
+ */
+abstract class InjectorPool {
+
+  private static final Logger logger = Logger.getLogger(InjectorPool.class.getName());
+
+  final Class<? extends Module> gbeClass;
+
+  private final AtomicLong leases = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private InjectorPool(Class<? extends Module> gbeClass) {
+    this.gbeClass = gbeClass;
+  }
+
+  /**
+   * Creates the pool for the {@code gbeClass} GuiceBerry Env, which already
+   * has the given {@code injector}, using {@code factory} to create its other
+   * injectors.
+   */
+  static InjectorPool create(GuiceBerryUniverse universe, Class<? extends Module> gbeClass,
+      GuiceBerryEnvIsolation isolation, Injector injector, Callable<Injector> factory) {
+    switch (isolation.value()) {
+      case POOLED:
+        int size = (isolation.poolSize() == 0)
+            ? Runtime.getRuntime().availableProcessors()
+            : isolation.poolSize();
+        if (size < 1) {
+          throw new IllegalArgumentException(String.format(
+              "The pool size of the GuiceBerry Env '%s' must be a positive number, but it is '%d'.",
+              gbeClass.getName(), size));
+        }
+        return new Pooled(universe, gbeClass, injector, factory, size);
+      case FRESH_PER_CLASS:
+        return new FreshPerClass(gbeClass, injector, factory);
+      default:
+        throw new IllegalArgumentException(isolation.value().toString());
+    }
+  }
+
+  /**
+   * Returns the injector the test given by {@code testDescription} should
+   * use, blocking until one is available.
+   */
+  final Injector lease(TestDescription testDescription) {
+    long start = System.nanoTime();
+    Injector result = doLease(testDescription);
+    long waited = System.nanoTime() - start;
+    leases.incrementAndGet();
+    totalWaitNanos.addAndGet(waited);
+    long max;
+    do {
+      max = maxWaitNanos.get();
+    } while ((waited > max) && !maxWaitNanos.compareAndSet(max, waited));
+    return result;
+  }
+
+  abstract Injector doLease(TestDescription testDescription);
+
+  /**
+   * Gives back the {@code injector} leased by {@link #lease}.
+   */
+  abstract void release(TestDescription testDescription, Injector injector);
+
+  /**
+   * Returns all the injectors created by this pool so far.
+   */
+  abstract List<Injector> getInjectors();
+
+  long getLeases() {
+    return leases.get();
+  }
+
+  long getTotalWaitTime(TimeUnit unit) {
+    return unit.convert(totalWaitNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  void logStats() {
+    logger.info(String.format(
+        "The injectors of the GuiceBerry Env '%s' were leased %d times; tests "
+        + "waited for them %d ms in total, and at most %d ms.",
+        gbeClass.getName(), leases.get(),
+        TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get())));
+  }
+
+  private static Injector call(Class<? extends Module> gbeClass, Callable<Injector> factory) {
+    try {
+      return factory.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(String.format(
+          "Error while creating an injector for the GuiceBerry Env '%s'.",
+          gbeClass.getName()), e);
+    }
+  }
+
+  /**
+   * Returns a {@link Callable} that calls {@code factory} (in whichever thread)
+   * as if in the currently-running test, since building an injector may
+   * need it (e.g. to build a {@link TestWrapper}).
+   */
+  private static Callable<Injector> inCurrentTest(final GuiceBerryUniverse universe,
+      final Callable<Injector> factory) {
+    final TestDescription testDescription = universe.currentTestDescriptionThreadLocal.get();
+    return new Callable<Injector>() {
+      public Injector call() throws Exception {
+        TestDescription previous = universe.currentTestDescriptionThreadLocal.get();
+        universe.currentTestDescriptionThreadLocal.set(testDescription);
+        try {
+          return factory.call();
+        } finally {
+          if (previous == null) {
+            universe.currentTestDescriptionThreadLocal.remove();
+          } else {
+            universe.currentTestDescriptionThreadLocal.set(previous);
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * See {@link GuiceBerryEnvIsolation.Level#POOLED}.
+   */
+  private static final class Pooled extends InjectorPool {
+
+    private final List<Injector> injectors;
+    private final BlockingQueue<Injector> idle = new LinkedBlockingQueue<Injector>();
+
+    Pooled(GuiceBerryUniverse universe, Class<? extends Module> gbeClass,
+        Injector injector, Callable<Injector> factory, int size) {
+      super(gbeClass);
+      List<Future<Injector>> futures = Lists.newArrayList();
+      Callable<Injector> inCurrentTest = inCurrentTest(universe, factory);
+      for (int i = 1; i < size; i++) {
+        futures.add(universe.getWorkerPool().submit(inCurrentTest));
+      }
+      List<Injector> result = Lists.newArrayList(injector);
+      Throwable failure = null;
+      for (Future<Injector> future : futures) {
+        try {
+          result.add(future.get());
+        } catch (ExecutionException e) {
+          failure = (failure == null) ? e.getCause() : failure;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failure = (failure == null) ? e : failure;
+        }
+      }
+      if (failure != null) {
+        for (Injector created : result.subList(1, result.size())) {
+          try {
+            GuiceBerryUniverse.shutDown(created);
+          } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error while shutting down an injector.", e);
+          }
+        }
+        throw new RuntimeException(String.format(
+            "Error while creating the pool of injectors of the GuiceBerry Env '%s'.",
+            gbeClass.getName()), failure);
+      }
+      this.injectors = ImmutableList.copyOf(result);
+      idle.addAll(result);
+    }
+
+    @Override
+    Injector doLease(TestDescription testDescription) {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            return idle.take();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    @Override
+    void release(TestDescription testDescription, Injector injector) {
+      idle.offer(injector);
+    }
+
+    @Override
+    List<Injector> getInjectors() {
+      return injectors;
+    }
+  }
+
+  /**
+   * See {@link GuiceBerryEnvIsolation.Level#FRESH_PER_CLASS}. As with
+   * {@link TestClassScope}, a class is considered done once a thread that ran
+   * its tests moves on to a test of another class, and no other test of that
+   * class is still running.
+   */
+  private static final class FreshPerClass extends InjectorPool {
+
+    private final Callable<Injector> factory;
+
+    // Guarded by this
+    private final Map<Class<?>, ClassInjector> classInjectors = Maps.newHashMap();
+    private final List<Injector> injectors = Lists.newArrayList();
+    private Injector unused;
+
+    private final ThreadLocal<Class<?>> lastClassRunInThisThread = new ThreadLocal<Class<?>>();
+
+    FreshPerClass(Class<? extends Module> gbeClass, Injector injector,
+        Callable<Injector> factory) {
+      super(gbeClass);
+      this.factory = factory;
+      this.unused = injector;
+      this.injectors.add(injector);
+    }
+
+    @Override
+    Injector doLease(TestDescription testDescription) {
+      Class<?> testClass = testDescription.getTestCaseClass();
+      ClassInjector classInjector;
+      synchronized (this) {
+        classInjector = classInjectors.get(testClass);
+        if (classInjector == null) {
+          classInjector = new ClassInjector();
+          classInjectors.put(testClass, classInjector);
+        }
+        classInjector.testsInFlight++;
+      }
+      Injector result;
+      boolean success = false;
+      try {
+        result = classInjector.get();
+        success = true;
+      } finally {
+        if (!success) {
+          synchronized (this) {
+            classInjector.testsInFlight--;
+          }
+        }
+      }
+      Class<?> previousClass = lastClassRunInThisThread.get();
+      lastClassRunInThisThread.set(testClass);
+      if ((previousClass != null) && (previousClass != testClass)) {
+        retireIfIdle(previousClass);
+      }
+      return result;
+    }
+
+    @Override
+    synchronized void release(TestDescription testDescription, Injector injector) {
+      ClassInjector classInjector = classInjectors.get(testDescription.getTestCaseClass());
+      if ((classInjector != null) && (classInjector.injector == injector)) {
+        classInjector.testsInFlight--;
+      }
+    }
+
+    @Override
+    synchronized List<Injector> getInjectors() {
+      return ImmutableList.copyOf(injectors);
+    }
+
+    private void retireIfIdle(Class<?> testClass) {
+      Injector toShutDown;
+      synchronized (this) {
+        ClassInjector classInjector = classInjectors.get(testClass);
+        if ((classInjector == null) || (classInjector.testsInFlight > 0)
+            || (classInjector.injector == null)) {
+          return;
+        }
+        classInjectors.remove(testClass);
+        injectors.remove(classInjector.injector);
+        toShutDown = classInjector.injector;
+      }
+      GuiceBerryUniverse.shutDown(toShutDown);
+    }
+
+    private synchronized Injector takeUnused() {
+      Injector result = unused;
+      unused = null;
+      return result;
+    }
+
+    private final class ClassInjector {
+      Injector injector;
+      int testsInFlight;
+
+      synchronized Injector get() {
+        if (injector == null) {
+          Injector result = takeUnused();
+          if (result == null) {
+            result = call(gbeClass, factory);
+            synchronized (FreshPerClass.this) {
+              injectors.add(result);
+            }
+          }
+          injector = result;
+        }
+        return injector;
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.guiceberry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Use this instead of {@code @Inject} on a field of a test whose value is
+ * seldom used. Rather than being built during the test's set up, the field is
+ * set to a lightweight proxy, and the real instance is only built (through the
+ * GuiceBerry Env's {@link com.google.inject.Injector}) the first time one of
+ * its methods is called.
+ *
+ * <p>E.g.:
+ *
+ * <pre>
+ *   {@code @}LazyInject
+ *   private ExpensiveService seldomUsed;
+ * </pre>
+ *
+ * <p>Binding annotations on the field are honored. The field's type must be an
+ * interface. The instance is only built once per test, and, being built during
+ * the test, it may be {@link TestScoped}.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LazyInject {}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Qualifier;
+
+/**
+ * Sets the {@link LazyInject} fields of a test to proxies that build the real
+ * instance on first use.
+ */
+final class LazyMemberInjector {
+
+  private static final ConcurrentMap<Class<?>, List<Field>> LAZY_FIELDS_CACHE =
+    new MapMaker().weakKeys().makeMap();
+
+  private LazyMemberInjector() {}
+
+  static void injectLazyMembers(Injector injector, Object testCase) {
+    for (Field field : getLazyFields(testCase.getClass())) {
+      Key<?> key = buildKey(field);
+      Object proxy = buildProxy(field.getType(), injector.getProvider(key));
+      try {
+        field.set(testCase, proxy);
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private static List<Field> getLazyFields(Class<?> testClass) {
+    List<Field> result = LAZY_FIELDS_CACHE.get(testClass);
+    if (result == null) {
+      ImmutableList.Builder<Field> builder = ImmutableList.builder();
+      for (Class<?> clazz = testClass; clazz != null; clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          if (field.isAnnotationPresent(LazyInject.class)) {
+            checkIsInterface(field);
+            field.setAccessible(true);
+            builder.add(field);
+          }
+        }
+      }
+      result = builder.build();
+      LAZY_FIELDS_CACHE.putIfAbsent(testClass, result);
+    }
+    return result;
+  }
+
+  private static void checkIsInterface(Field field) {
+    if (!field.getType().isInterface()) {
+      throw new IllegalArgumentException(String.format(
+          "The @%s field '%s' of '%s' must be of an interface type, but it is a '%s'.",
+          LazyInject.class.getSimpleName(), field.getName(),
+          field.getDeclaringClass().getName(), field.getType().getName()));
+    }
+  }
+
+  private static Key<?> buildKey(Field field) {
+    for (Annotation annotation : field.getAnnotations()) {
+      Class<? extends Annotation> annotationType = annotation.annotationType();
+      if (annotationType.isAnnotationPresent(BindingAnnotation.class)
+          || annotationType.isAnnotationPresent(Qualifier.class)) {
+        return Key.get(field.getGenericType(), annotation);
+      }
+    }
+    return Key.get(field.getGenericType());
+  }
+
+  private static Object buildProxy(Class<?> type, final Provider<?> provider) {
+    return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        new InvocationHandler() {
+          private Object instance;
+
+          private synchronized Object getInstance() {
+            if (instance == null) {
+              instance = provider.get();
+            }
+            return instance;
+          }
+
+          public Object invoke(Object proxy, Method method, Object[] args)
+              throws Throwable {
+            try {
+              return method.invoke(getInstance(), args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          }
+        });
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+/**
+ * Implemented by {@link TestPooled} objects that can be cheaply brought back
+ * to a pristine state. Instead of being thrown away at the end of a test, these
+ * are {@link #reset()} and handed out again to later tests.
+ */
+public interface Resettable {
+
+  /**
+   * Brings this instance back to the state it would have if it had just been
+   * built. Called by GuiceBerry when a test that used this instance is torn
+   * down. If this method throws, the instance is discarded.
+   */
+  void reset();
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.testing.TearDown;
+import com.google.common.testing.TearDownStack;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.Singleton;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of the {@link TestClassScoped} annotation.
+ *
+ * <p>There is no test-framework-agnostic way of knowing which is the last test
+ * of a test class, so the scope for a class is finished when either:
+ *
+ * <ul>
+ *   <li>a thread that ran a test of that class moves on to a test of a
+ *     different class, and no other test of that class is still running
+ *     (this is what happens with sequential test runners);
+ *   <li>{@link #finishScope(Class)} is called (e.g. by a test runner that
+ *     knows better);
+ *   <li>the JVM shuts down.
+ * </ul>
+ *
+ * <p>When a class's scope is finished, all of its instances that are
+ * {@link java.io.Closeable} (or {@code AutoCloseable}) are closed, in the
+ * reverse order they were created, after its tear downs ran.
+ *
+ * <p>It is safe for tests of different classes (or of the same class) to run
+ * concurrently. In the worst case, a class's scope is finished "too early",
+ * and its instances are built again for the remaining tests of that class.
+ *
+ * @see Scope
+ */
+@Singleton
+class TestClassScope implements Scope {
+
+  private final GuiceBerryUniverse universe;
+
+  private final ConcurrentMap<Class<?>, ClassState> classMap =
+      new ConcurrentHashMap<Class<?>, ClassState>();
+
+  private final ThreadLocal<Class<?>> lastClassRunInThisThread =
+      new ThreadLocal<Class<?>>();
+
+  private final AtomicBoolean shutdownHookAdded = new AtomicBoolean(false);
+
+  TestClassScope(GuiceBerryUniverse universe) {
+    this.universe = universe;
+  }
+
+  /**
+   * Called by GuiceBerry when the test given by {@code testDescription} is
+   * about to start.
+   */
+  void enteringTest(TestDescription testDescription) {
+    if (shutdownHookAdded.compareAndSet(false, true)) {
+      Runtime.getRuntime().addShutdownHook(new Thread("GuiceBerry TestClassScope") {
+        @Override
+        public void run() {
+          finishAllScopes();
+        }
+      });
+    }
+    Class<?> testClass = testDescription.getTestCaseClass();
+    while (!enterClass(testClass)) {
+      // We lost a race with a thread that just finished this class' scope
+    }
+    Class<?> previousClass = lastClassRunInThisThread.get();
+    lastClassRunInThisThread.set(testClass);
+    if ((previousClass != null) && (previousClass != testClass)) {
+      finishScope(previousClass, true);
+    }
+  }
+
+  private boolean enterClass(Class<?> testClass) {
+    ClassState state = getOrCreateState(testClass);
+    synchronized (state) {
+      if (state.finished) {
+        return false;
+      }
+      state.testsInFlight++;
+      return true;
+    }
+  }
+
+  /**
+   * Called by GuiceBerry when the test given by {@code testDescription} is
+   * done.
+   */
+  void exitingTest(TestDescription testDescription) {
+    ClassState state = classMap.get(testDescription.getTestCaseClass());
+    if (state != null) {
+      synchronized (state) {
+        state.testsInFlight--;
+      }
+    }
+  }
+
+  /**
+   * Ends the scope of the given {@code testClass}, running all the tear downs
+   * added to its {@link TestClassTearDownAccepter}. Instances of this class are
+   * built anew the next time they are needed.
+   */
+  void finishScope(Class<?> testClass) {
+    finishScope(testClass, false);
+  }
+
+  /**
+   * Like {@link #finishScope(Class)}, but, if {@code onlyIfIdle}, leaves the
+   * scope alone while any test of {@code testClass} is running. Checking for
+   * that and marking the scope as finished happen atomically, so that no test
+   * can enter the class in between and have its instances torn down under
+   * its feet.
+   */
+  private void finishScope(Class<?> testClass, boolean onlyIfIdle) {
+    ClassState state = classMap.get(testClass);
+    if (state == null) {
+      return;
+    }
+    synchronized (state) {
+      if (state.finished) {
+        return;
+      }
+      if (onlyIfIdle && (state.testsInFlight > 0)) {
+        return;
+      }
+      state.finished = true;
+      classMap.remove(testClass, state);
+    }
+    String owner = String.format(
+        "@%s of '%s'", TestClassScoped.class.getSimpleName(), testClass.getName());
+    try {
+      state.tearDownStack.runTearDown();
+    } catch (RuntimeException e) {
+      throw new RuntimeException(String.format(
+          "Error while tearing down the %s.", owner), e);
+    } finally {
+      try {
+        synchronized (state.created) {
+          Closeables.closeAll(state.created, owner);
+        }
+      } finally {
+        universe.getListeners().testClassScopeFinished(testClass);
+      }
+    }
+  }
+
+  /**
+   * Ends all the currently active scopes. See {@link #finishScope(Class)}.
+   */
+  void finishAllScopes() {
+    List<Class<?>> testClasses = Lists.newArrayList(classMap.keySet());
+    for (Class<?> testClass : testClasses) {
+      finishScope(testClass);
+    }
+  }
+
+  private ClassState getOrCreateState(Class<?> testClass) {
+    ClassState result = classMap.get(testClass);
+    if (result == null) {
+      classMap.putIfAbsent(testClass, new ClassState());
+      result = classMap.get(testClass);
+    }
+    return result;
+  }
+
+  private ClassState currentState() {
+    TestDescription actualTestCase = universe.currentTestDescriptionThreadLocal.get();
+    if (actualTestCase == null) {
+      throw new IllegalStateException(
+          "GuiceBerry can't find out what is the currently-running test. " +
+          "There are a few reasons why this can happen, but a likely one " +
+          "is that a GuiceBerry Injector is being asked to instantiate a " +
+          "class in a thread not created by your test case.");
+    }
+    return getOrCreateState(actualTestCase.getTestCaseClass());
+  }
+
+  /**
+   * Returns the {@link TestClassTearDownAccepter} of the currently-running
+   * test's class.
+   */
+  TestClassTearDownAccepter currentTearDownAccepter() {
+    final ClassState state = currentState();
+    return new TestClassTearDownAccepter() {
+      public void addTearDown(TearDown tearDown) {
+        // TearDownStack is not thread-safe, and tests of the same class may
+        // run concurrently
+        synchronized (state) {
+          state.tearDownStack.addTearDown(tearDown);
+        }
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized <T> Provider<T> scope(final Key<T> key,
+      final Provider<T> creator) {
+
+    return new Provider<T>() {
+      public T get() {
+        ClassState state = currentState();
+        Map<Key<?>, Object> keyToInstanceProvider = state.instances;
+        Object o = keyToInstanceProvider.get(key);
+        if (o != null) {
+          return (T) o;
+        }
+        // double checked locking -- handle with extreme care!
+        synchronized(keyToInstanceProvider) {
+          o = keyToInstanceProvider.get(key);
+          if (o == null) {
+            o = creator.get();
+            keyToInstanceProvider.put(key, o);
+            if (Closeables.isCloseable(o)) {
+              state.created.add(o);
+            }
+          }
+          return (T) o;
+        }
+      }
+    };
+  }
+
+  private static final class ClassState {
+    final Map<Key<?>, Object> instances = new ConcurrentHashMap<Key<?>, Object>();
+    final TearDownStack tearDownStack = new TearDownStack();
+    final List<Object> created = Collections.synchronizedList(Lists.newArrayList());
+    int testsInFlight;
+    boolean finished;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.guiceberry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.inject.Scope;
+import com.google.inject.ScopeAnnotation;
+
+/**
+ * This defines a {@link Scope} that is shared by all the tests of a given test
+ * class (see {@link TestDescription#getTestCaseClass()}). It is wider than
+ * {@link TestScoped}, but much narrower than a {@link com.google.inject.Singleton}.
+ *
+ * <p>Use it for fixtures that are expensive to build, and that can be safely
+ * shared by the methods of a test class (e.g. a browser driver). To clean
+ * them up once the class is done, inject a {@link TestClassTearDownAccepter}.
+ * 
+ * @see TestClassScope implementation details
+ * 
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ScopeAnnotation
+public @interface TestClassScoped {}
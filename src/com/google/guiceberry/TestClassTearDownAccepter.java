@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.guiceberry;
+
+import com.google.common.testing.TearDownAccepter;
+
+/**
+ * A {@link TearDownAccepter} whose tear downs are run when the
+ * {@link TestClassScoped} scope of the currently-running test class ends,
+ * rather than at the end of each test.
+ *
+ * <p>A canonical use looks like this, in your GuiceBerry env:
+ *
+ * <code>
+ * @Provides @TestClassScoped
+ * WebDriver getWebDriver(TestClassTearDownAccepter tearDownAccepter) {
+ *   final WebDriver driver = new HtmlUnitDriver();
+ *   tearDownAccepter.addTearDown(new TearDown() {
+ *     public void tearDown() throws Exception {
+ *       driver.quit();
+ *     }
+ *   });
+ *   return driver;
+ * }
+ * </code>
+ */
+public interface TestClassTearDownAccepter extends TearDownAccepter {}
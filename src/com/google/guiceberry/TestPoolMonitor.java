@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.Key;
+
+import java.util.Map;
+
+/**
+ * Gives access to the metrics of the {@link TestPooled} pools of a GuiceBerry
+ * Env. Simply {@code @Inject} it wherever you need it.
+ */
+public interface TestPoolMonitor {
+
+  /**
+   * Returns a snapshot of the {@link TestPoolStats} of every {@link TestPooled}
+   * {@link Key} that has been used so far.
+   */
+  Map<Key<?>, TestPoolStats> getStats();
+}
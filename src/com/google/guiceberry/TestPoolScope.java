@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.Singleton;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the {@link TestPooled} annotation.
+ *
+ * @see Scope
+ */
+@Singleton
+class TestPoolScope implements Scope, TestPoolMonitor {
+
+  static final String MAX_SIZE_SYSTEM_PROPERTY_NAME = "GuiceBerryTestPoolMaxSize";
+
+  static final String TIMEOUT_SYSTEM_PROPERTY_NAME = "GuiceBerryTestPoolTimeoutMillis";
+
+  private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private final GuiceBerryUniverse universe;
+  private final int maxSize;
+  private final long timeoutMillis;
+
+  private final ConcurrentMap<Key<?>, Pool> pools =
+      new ConcurrentHashMap<Key<?>, Pool>();
+
+  private final ConcurrentMap<TestDescription, Map<Key<?>, Object>> testMap =
+      new ConcurrentHashMap<TestDescription, Map<Key<?>, Object>>();
+
+  TestPoolScope(GuiceBerryUniverse universe) {
+    this(universe,
+        Integer.getInteger(
+            MAX_SIZE_SYSTEM_PROPERTY_NAME, Runtime.getRuntime().availableProcessors()),
+        Long.getLong(TIMEOUT_SYSTEM_PROPERTY_NAME, DEFAULT_TIMEOUT_MILLIS));
+  }
+
+  TestPoolScope(GuiceBerryUniverse universe, int maxSize, long timeoutMillis) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' system property must be a positive number, but it is '%d'.",
+          MAX_SIZE_SYSTEM_PROPERTY_NAME, maxSize));
+    }
+    if (timeoutMillis < 1) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' system property must be a positive number, but it is '%d'.",
+          TIMEOUT_SYSTEM_PROPERTY_NAME, timeoutMillis));
+    }
+    this.universe = universe;
+    this.maxSize = maxSize;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Returns all the instances leased by the test given by {@code testCase}
+   * to their pools.
+   *
+   * @throws RuntimeException if the {@link Resettable#reset()} of any of these
+   *     instances failed. All instances are returned nonetheless.
+   */
+  void finishScope(TestDescription testCase) {
+    Map<Key<?>, Object> leased = testMap.remove(testCase);
+    if (leased == null) {
+      return;
+    }
+    RuntimeException failure = null;
+    for (Map.Entry<Key<?>, Object> entry : leased.entrySet()) {
+      try {
+        pools.get(entry.getKey()).release(entry.getValue());
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = new RuntimeException(String.format(
+              "Error while resetting the @%s '%s' used by '%s'.",
+              TestPooled.class.getSimpleName(), entry.getKey(), testCase.getName()), e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Throws away all the instances currently sitting idle in the pools, closing
+   * the ones that are {@link java.io.Closeable}. Called when the env these
+   * pools belong to is shut down.
+   *
+   * @throws RuntimeException if closing any of these instances failed. All
+   *     instances are closed nonetheless.
+   */
+  void closeIdleInstances() {
+    RuntimeException failure = null;
+    for (Map.Entry<Key<?>, Pool> entry : pools.entrySet()) {
+      try {
+        entry.getValue().closeIdleInstances(entry.getKey());
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public Map<Key<?>, TestPoolStats> getStats() {
+    ImmutableMap.Builder<Key<?>, TestPoolStats> result = ImmutableMap.builder();
+    for (Map.Entry<Key<?>, Pool> entry : pools.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return result.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized <T> Provider<T> scope(final Key<T> key,
+      final Provider<T> creator) {
+
+    return new Provider<T>() {
+      public T get() {
+
+        TestDescription actualTestCase = universe.currentTestDescriptionThreadLocal.get();
+        if (actualTestCase == null) {
+          throw new IllegalStateException(
+              "GuiceBerry can't find out what is the currently-running test. " +
+              "There are a few reasons why this can happen, but a likely one " +
+              "is that a GuiceBerry Injector is being asked to instantiate a " +
+              "class in a thread not created by your test case.");
+        }
+        Map<Key<?>, Object> keyToInstanceProvider = testMap.get(actualTestCase);
+        if (keyToInstanceProvider == null) {
+          testMap.putIfAbsent(
+              actualTestCase, new ConcurrentHashMap<Key<?>, Object>());
+          keyToInstanceProvider = testMap.get(actualTestCase);
+        }
+        Object o = keyToInstanceProvider.get(key);
+        if (o != null) {
+          return (T) o;
+        }
+        // double checked locking -- handle with extreme care!
+        synchronized(keyToInstanceProvider) {
+          o = keyToInstanceProvider.get(key);
+          if (o == null) {
+            o = getPool(key).acquire(key, creator, timeoutMillis);
+            keyToInstanceProvider.put(key, o);
+          }
+          return (T) o;
+        }
+      }
+    };
+  }
+
+  private Pool getPool(Key<?> key) {
+    Pool result = pools.get(key);
+    if (result == null) {
+      pools.putIfAbsent(key, new Pool(maxSize));
+      result = pools.get(key);
+    }
+    return result;
+  }
+
+  /**
+   * The pool of a single {@link Key}. At most {@code maxSize} instances are
+   * ever leased at the same time.
+   */
+  private static final class Pool {
+
+    private final int maxSize;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<Object> idle = new ConcurrentLinkedQueue<Object>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong totalResetNanos = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    Pool(int maxSize) {
+      this.maxSize = maxSize;
+      this.permits = new Semaphore(maxSize, true);
+    }
+
+    Object acquire(Key<?> key, Provider<?> creator, long timeoutMillis) {
+      long start = System.nanoTime();
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(String.format(
+            "Interrupted while waiting for a @%s '%s'.",
+            TestPooled.class.getSimpleName(), key), e);
+      } finally {
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+      }
+      if (!acquired) {
+        throw new IllegalStateException(String.format(
+            "Timed out after %d ms waiting for one of the %d @%s '%s' to be "
+            + "returned to its pool. Either tests are holding on to them for "
+            + "too long, or the '%s' or '%s' system properties are too low.",
+            timeoutMillis, maxSize, TestPooled.class.getSimpleName(), key,
+            MAX_SIZE_SYSTEM_PROPERTY_NAME, TIMEOUT_SYSTEM_PROPERTY_NAME));
+      }
+
+      Object result = idle.poll();
+      if (result != null) {
+        hits.incrementAndGet();
+        return result;
+      }
+      misses.incrementAndGet();
+      boolean success = false;
+      try {
+        result = creator.get();
+        success = true;
+        return result;
+      } finally {
+        if (!success) {
+          permits.release();
+        }
+      }
+    }
+
+    void release(Object instance) {
+      try {
+        if (!(instance instanceof Resettable)) {
+          discarded.incrementAndGet();
+          Closeables.closeAll(Collections.singletonList(instance), String.format(
+              "discarded @%s instance", TestPooled.class.getSimpleName()));
+          return;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+          ((Resettable) instance).reset();
+          success = true;
+        } finally {
+          if (success) {
+            totalResetNanos.addAndGet(System.nanoTime() - start);
+            resets.incrementAndGet();
+            idle.offer(instance);
+          } else {
+            discarded.incrementAndGet();
+          }
+        }
+      } finally {
+        permits.release();
+      }
+    }
+
+    void closeIdleInstances(Key<?> key) {
+      List<Object> toClose = Lists.newArrayList();
+      for (Object instance = idle.poll(); instance != null; instance = idle.poll()) {
+        toClose.add(instance);
+      }
+      Closeables.closeAll(toClose, String.format(
+          "idle @%s '%s'", TestPooled.class.getSimpleName(), key));
+    }
+
+    TestPoolStats snapshot() {
+      return new TestPoolStats(hits.get(), misses.get(), totalWaitNanos.get(),
+          resets.get(), totalResetNanos.get(), discarded.get());
+    }
+  }
+}
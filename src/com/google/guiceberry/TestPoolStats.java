@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of the metrics of the pool of a {@link TestPooled}
+ * key. See {@link TestPoolMonitor}.
+ */
+public final class TestPoolStats {
+
+  private final long hits;
+  private final long misses;
+  private final long totalWaitNanos;
+  private final long resets;
+  private final long totalResetNanos;
+  private final long discarded;
+
+  TestPoolStats(long hits, long misses, long totalWaitNanos, long resets,
+      long totalResetNanos, long discarded) {
+    this.hits = hits;
+    this.misses = misses;
+    this.totalWaitNanos = totalWaitNanos;
+    this.resets = resets;
+    this.totalResetNanos = totalResetNanos;
+    this.discarded = discarded;
+  }
+
+  /**
+   * Returns how many times a test got an instance that was already in the
+   * pool.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns how many times a new instance had to be built.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the ratio of {@link #getHits()} to all requests, or {@code 0} if
+   * there has been no request yet.
+   */
+  public double getHitRate() {
+    long requests = hits + misses;
+    return (requests == 0) ? 0 : ((double) hits) / requests;
+  }
+
+  /**
+   * Returns the total time tests spent waiting for an instance to become
+   * available.
+   */
+  public long getTotalWaitTime(TimeUnit unit) {
+    return unit.convert(totalWaitNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns how many times {@link Resettable#reset()} was successfully called.
+   */
+  public long getResets() {
+    return resets;
+  }
+
+  /**
+   * Returns the total time spent in {@link Resettable#reset()}.
+   */
+  public long getTotalResetTime(TimeUnit unit) {
+    return unit.convert(totalResetNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns how many instances were thrown away, either because they do not
+   * implement {@link Resettable}, or because their reset failed.
+   */
+  public long getDiscarded() {
+    return discarded;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "[hits=%d, misses=%d, hitRate=%.2f, waitMs=%d, resets=%d, resetMs=%d, discarded=%d]",
+        hits, misses, getHitRate(), getTotalWaitTime(TimeUnit.MILLISECONDS),
+        resets, getTotalResetTime(TimeUnit.MILLISECONDS), discarded);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.guiceberry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.inject.Scope;
+import com.google.inject.ScopeAnnotation;
+
+/**
+ * This defines a {@link Scope} that, as far as a test is concerned, behaves
+ * just like {@link TestScoped}: the same instance is given to all injections
+ * done during that test. Unlike {@link TestScoped}, though, instances that
+ * implement {@link Resettable} are not thrown away at the end of the test, but
+ * rather reset and kept in a bounded pool, to be handed out to later tests
+ * (including tests running concurrently). Other instances are thrown away
+ * (and closed, if they are {@link java.io.Closeable}).
+ *
+ * <p>Since a pooled instance outlives the test that created it, it must not
+ * depend on {@link TestScoped} objects.
+ *
+ * <p>The size of each pool is given by the {@code GuiceBerryTestPoolMaxSize}
+ * system property, and defaults to the number of available processors. A
+ * test that needs an instance when all of them are in use waits for one to be
+ * returned, for at most {@code GuiceBerryTestPoolTimeoutMillis} (5 minutes by
+ * default), and fails if none is. Instances still idle when their env is shut
+ * down are closed. See {@link TestPoolMonitor} for how to get metrics on these
+ * pools.
+ *
+ * @see TestPoolScope implementation details
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ScopeAnnotation
+public @interface TestPooled {}
@@ -15,17 +15,24 @@
  */
 package com.google.guiceberry;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 import com.google.inject.Singleton;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of the {@link TestScoped} annotation.
+ *
+ * <p>When a test's scope is finished, all of its instances that are
+ * {@link java.io.Closeable} (or {@code AutoCloseable}) are closed, in the
+ * reverse order they were created.
  * 
  * @see Scope 
  *
@@ -39,12 +46,53 @@ class TestScope implements Scope {
   private final ConcurrentMap<TestDescription, Map<Key<?>, Object>> testMap =
       new ConcurrentHashMap<TestDescription, Map <Key<?>, Object>>();
 
+  private final ConcurrentMap<TestDescription, ConcurrentMap<Key<?>, Object>> lockMap =
+      new ConcurrentHashMap<TestDescription, ConcurrentMap<Key<?>, Object>>();
+
+  private final ConcurrentMap<TestDescription, List<Object>> creationOrderMap =
+      new ConcurrentHashMap<TestDescription, List<Object>>();
+
   TestScope(GuiceBerryUniverse universe) {
     this.universe = universe;
   }
 
   void finishScope(TestDescription testCase) {
     testMap.remove(testCase);
+    lockMap.remove(testCase);
+    List<Object> created = creationOrderMap.remove(testCase);
+    if (created != null) {
+      synchronized (created) {
+        Closeables.closeAll(created, String.format(
+            "@%s of '%s'", TestScoped.class.getSimpleName(), testCase.getName()));
+      }
+    }
+  }
+
+  private void recordCreation(TestDescription testCase, Object instance) {
+    if (!Closeables.isCloseable(instance)) {
+      return;
+    }
+    List<Object> created = creationOrderMap.get(testCase);
+    if (created == null) {
+      creationOrderMap.putIfAbsent(
+          testCase, Collections.synchronizedList(Lists.newArrayList()));
+      created = creationOrderMap.get(testCase);
+    }
+    created.add(instance);
+  }
+
+  private Object lockFor(TestDescription testCase, Key<?> key) {
+    ConcurrentMap<Key<?>, Object> locks = lockMap.get(testCase);
+    if (locks == null) {
+      lockMap.putIfAbsent(testCase, new ConcurrentHashMap<Key<?>, Object>());
+      locks = lockMap.get(testCase);
+    }
+    Object result = locks.get(key);
+    if (result == null) {
+      locks.putIfAbsent(key, new Object());
+      result = locks.get(key);
+    }
+    return result;
   }
   
   @SuppressWarnings("unchecked")  
@@ -72,12 +120,15 @@ class TestScope implements Scope {
         if (o != null) {
           return (T) o;
         }
-        // double checked locking -- handle with extreme care!
-        synchronized(keyToInstanceProvider) {
+        // double checked locking -- handle with extreme care! We lock on
+        // each key separately, so that different keys of the same test can be
+        // built concurrently (see EagerTestScopedKeys).
+        synchronized(lockFor(actualTestCase, key)) {
           o = keyToInstanceProvider.get(key);
           if (o == null) {
             o = creator.get();
             keyToInstanceProvider.put(key, o);
+            recordCreation(actualTestCase, o);
           }
           return (T) o;
         }
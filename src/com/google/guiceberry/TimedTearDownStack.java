@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.testing.TearDown;
+import com.google.guiceberry.GuiceBerryModule.ToTearDown;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link ToTearDown} of a test. Like a
+ * {@link com.google.common.testing.TearDownStack}, it runs its tear downs in
+ * the reverse order they were added, but also:
+ *
+ * <ul>
+ *   <li>it runs {@link IndependentTearDown}s in parallel with all others,
+ *     on the {@link GuiceBerryUniverse#getWorkerPool() worker pool};
+ *   <li>it gives up on a tear down that takes longer than the
+ *     {@value #TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME} system property (in
+ *     milliseconds), and skips all the remaining tear downs once the whole
+ *     test took longer than the
+ *     {@value #TEST_TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME} system property.
+ *     Either of these being absent (or 0) means "no deadline". Other than the
+ *     {@link IndependentTearDown}s, tear downs still run in the test's
+ *     thread, which is interrupted when one of them misses its deadline;
+ *   <li>it sets {@link DeferrableTearDown}s aside, to be run later by
+ *     {@link #runDeferredTearDowns()};
+ *   <li>it logs how long each tear down took (at {@link Level#FINE}, or at
+ *     {@link Level#WARNING} if some tear down missed its deadline).
+ * </ul>
+ *
+ * <p>Unlike a {@link com.google.common.testing.TearDownStack}, it is safe for
+ * tear downs to be added from multiple threads.
+ */
+final class TimedTearDownStack implements ToTearDown {
+
+  static final String TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME =
+      "GuiceBerryTearDownTimeoutMillis";
+
+  static final String TEST_TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME =
+      "GuiceBerryTestTearDownTimeoutMillis";
+
+  private static final Logger logger =
+      Logger.getLogger(TimedTearDownStack.class.getName());
+
+  private final GuiceBerryUniverse universe;
+  private final TestDescription testDescription;
+  private final long tearDownTimeoutNanos;
+  private final long testTearDownTimeoutNanos;
+
+  private final LinkedList<TearDown> stack = new LinkedList<TearDown>();
+
+  private final List<TearDown> deferred = Lists.newArrayList();
+
+  private volatile GuiceBerryListeners listeners = GuiceBerryListeners.NONE;
+
+  TimedTearDownStack(GuiceBerryUniverse universe, TestDescription testDescription) {
+    this(universe, testDescription,
+        Long.getLong(TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME, 0),
+        Long.getLong(TEST_TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME, 0));
+  }
+
+  TimedTearDownStack(GuiceBerryUniverse universe, TestDescription testDescription,
+      long tearDownTimeoutMillis, long testTearDownTimeoutMillis) {
+    if ((tearDownTimeoutMillis < 0) || (testTearDownTimeoutMillis < 0)) {
+      throw new IllegalArgumentException(String.format(
+          "The '%s' and '%s' system properties can't be negative.",
+          TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME,
+          TEST_TEAR_DOWN_TIMEOUT_SYSTEM_PROPERTY_NAME));
+    }
+    this.universe = universe;
+    this.testDescription = testDescription;
+    this.tearDownTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(tearDownTimeoutMillis);
+    this.testTearDownTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(testTearDownTimeoutMillis);
+  }
+
+  /**
+   * Sets the listeners to tell about each tear down that ran.
+   */
+  void setListeners(GuiceBerryListeners listeners) {
+    this.listeners = listeners;
+  }
+
+  public synchronized void addTearDown(TearDown tearDown) {
+    stack.addFirst(tearDown);
+  }
+
+  /**
+   * Runs all the tear downs added so far, except for the
+   * {@link DeferrableTearDown}s.
+   *
+   * @throws RuntimeException if any tear down failed or missed its deadline.
+   *     All tear downs are run (or given up on) nonetheless.
+   */
+  public void runTearDown() {
+    List<TearDown> tearDowns = Lists.newArrayList();
+    synchronized (this) {
+      for (TearDown tearDown : stack) {
+        if (tearDown instanceof DeferrableTearDown) {
+          deferred.add(tearDown);
+        } else {
+          tearDowns.add(tearDown);
+        }
+      }
+      stack.clear();
+    }
+    run(tearDowns, "Tear down");
+  }
+
+  public synchronized boolean hasDeferredTearDowns() {
+    return !deferred.isEmpty();
+  }
+
+  /**
+   * Runs the {@link DeferrableTearDown}s set aside by {@link #runTearDown()}.
+   *
+   * @throws RuntimeException if any of them failed or missed its deadline.
+   */
+  public void runDeferredTearDowns() {
+    List<TearDown> tearDowns;
+    synchronized (this) {
+      tearDowns = Lists.newArrayList(deferred);
+      deferred.clear();
+    }
+    run(tearDowns, "Deferred tear down");
+  }
+
+  private void run(List<TearDown> tearDowns, String what) {
+    long start = System.nanoTime();
+    long testDeadline = (testTearDownTimeoutNanos == 0)
+        ? Long.MAX_VALUE : start + testTearDownTimeoutNanos;
+
+    List<Timing> timings = Lists.newArrayList();
+    for (TearDown tearDown : tearDowns) {
+      if (tearDown instanceof IndependentTearDown) {
+        timings.add(new Timing(tearDown, universe.getWorkerPool().submit(timed(tearDown))));
+      }
+    }
+    for (TearDown tearDown : tearDowns) {
+      if (tearDown instanceof IndependentTearDown) {
+        continue;
+      }
+      Timing timing = new Timing(tearDown, null);
+      if ((testDeadline != Long.MAX_VALUE) && (System.nanoTime() - testDeadline >= 0)) {
+        timing.skip();
+      } else {
+        timing.runInThisThread(testDeadline);
+      }
+      timings.add(timing);
+    }
+    for (Timing timing : timings) {
+      if (timing.nanos == -1) {
+        timing.await(testDeadline);
+      }
+    }
+    report(what, timings, System.nanoTime() - start);
+  }
+
+  private Callable<Long> timed(final TearDown tearDown) {
+    return new Callable<Long>() {
+      public Long call() throws Exception {
+        boolean otherThread =
+            universe.currentTestDescriptionThreadLocal.get() != testDescription;
+        if (otherThread) {
+          universe.currentTestDescriptionThreadLocal.set(testDescription);
+        }
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+          tearDown.tearDown();
+          return System.nanoTime() - start;
+        } catch (Exception e) {
+          failure = e;
+          throw e;
+        } catch (Error e) {
+          failure = e;
+          throw e;
+        } finally {
+          listeners.tearDownFinished(testDescription, tearDown, start, failure);
+          if (otherThread) {
+            universe.currentTestDescriptionThreadLocal.remove();
+          }
+        }
+      }
+    };
+  }
+
+  private void report(String what, List<Timing> timings, long totalNanos) {
+    List<Throwable> failures = Lists.newArrayList();
+    boolean timedOut = false;
+    StringBuilder summary = new StringBuilder(String.format(
+        "%s of '%s' took %d ms:", what, testDescription.getName(),
+        TimeUnit.NANOSECONDS.toMillis(totalNanos)));
+    for (Timing timing : timings) {
+      summary.append(String.format("%n  %s%s: %d ms",
+          timing.tearDown.getClass().getName(),
+          (timing.tearDown instanceof IndependentTearDown) ? " (independent)" : "",
+          TimeUnit.NANOSECONDS.toMillis(timing.nanos)));
+      if (timing.skipped) {
+        summary.append(" (skipped)");
+        timedOut = true;
+      } else if (timing.failure instanceof TimeoutException) {
+        summary.append(" (timed out)");
+        timedOut = true;
+      } else if (timing.failure != null) {
+        summary.append(" (failed)");
+      }
+      if (timing.failure != null) {
+        failures.add(timing.failure);
+      }
+    }
+    logger.log(timedOut ? Level.WARNING : Level.FINE, summary.toString());
+
+    if (failures.isEmpty()) {
+      return;
+    }
+    Throwable first = failures.get(0);
+    if (failures.size() == 1) {
+      if (first instanceof RuntimeException) {
+        throw (RuntimeException) first;
+      }
+      if (first instanceof Error) {
+        throw (Error) first;
+      }
+    }
+    StringBuilder message = new StringBuilder(String.format(
+        "%d tear down(s) of '%s' failed:", failures.size(), testDescription.getName()));
+    for (Throwable failure : failures) {
+      message.append(String.format("%n  %s", failure));
+    }
+    throw new RuntimeException(message.toString(), first);
+  }
+
+  private final class Timing {
+    final TearDown tearDown;
+    final Future<Long> future;
+    final long submitted = System.nanoTime();
+    long nanos = -1;
+    Throwable failure;
+    boolean skipped;
+
+    Timing(TearDown tearDown, Future<Long> future) {
+      this.tearDown = tearDown;
+      this.future = future;
+    }
+
+    /**
+     * Runs the tear down in the current thread, interrupting it if it misses
+     * its deadline.
+     */
+    void runInThisThread(long testDeadline) {
+      long deadline = deadline(testDeadline);
+      Watchdog watchdog = null;
+      if (deadline != Long.MAX_VALUE) {
+        watchdog = new Watchdog(Thread.currentThread(), deadline);
+        universe.getWorkerPool().execute(watchdog);
+      }
+      try {
+        nanos = timed(tearDown).call();
+      } catch (Throwable t) {
+        nanos = System.nanoTime() - submitted;
+        failure = t;
+      } finally {
+        if ((watchdog != null) && watchdog.stop()) {
+          // Don't leak the watchdog's interrupt into the next tear down
+          Thread.interrupted();
+          failure = timedOut();
+        }
+      }
+    }
+
+    void skip() {
+      nanos = 0;
+      skipped = true;
+      failure = new TimeoutException(String.format(
+          "The tear down '%s' of '%s' was skipped, since the test's tear down "
+          + "deadline had already passed.", tearDown, testDescription.getName()));
+    }
+
+    void await(long testDeadline) {
+      long deadline = deadline(testDeadline);
+      try {
+        if (deadline == Long.MAX_VALUE) {
+          nanos = future.get();
+        } else {
+          nanos = future.get(
+              Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        return;
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        failure = timedOut();
+      } catch (ExecutionException e) {
+        failure = e.getCause();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.cancel(true);
+        failure = e;
+      }
+      nanos = System.nanoTime() - submitted;
+    }
+
+    private long deadline(long testDeadline) {
+      return (tearDownTimeoutNanos == 0)
+          ? testDeadline : Math.min(testDeadline, submitted + tearDownTimeoutNanos);
+    }
+
+    private TimeoutException timedOut() {
+      return new TimeoutException(String.format(
+          "The tear down '%s' of '%s' did not finish within its deadline.",
+          tearDown, testDescription.getName()));
+    }
+  }
+
+  /**
+   * Interrupts a thread unless {@link #stop()} is called before a deadline.
+   */
+  private static final class Watchdog implements Runnable {
+    private final Thread thread;
+    private final long deadline;
+    private boolean stopped;
+    private boolean fired;
+
+    Watchdog(Thread thread, long deadline) {
+      this.thread = thread;
+      this.deadline = deadline;
+    }
+
+    public synchronized void run() {
+      try {
+        long left = deadline - System.nanoTime();
+        while (!stopped && (left > 0)) {
+          TimeUnit.NANOSECONDS.timedWait(this, left);
+          left = deadline - System.nanoTime();
+        }
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (!stopped) {
+        fired = true;
+        thread.interrupt();
+      }
+    }
+
+    /**
+     * Stops this watchdog, returning whether it already interrupted its
+     * thread.
+     */
+    synchronized boolean stop() {
+      stopped = true;
+      notifyAll();
+      return fired;
+    }
+  }
+}
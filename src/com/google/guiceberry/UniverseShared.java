@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.inject.Scope;
+import com.google.inject.ScopeAnnotation;
+
+/**
+ * This defines a {@link Scope} that is wider than a
+ * {@link com.google.inject.Singleton}: a single instance for a given
+ * {@link com.google.inject.Key} is shared by all the GuiceBerry Envs that
+ * bind that key in this scope (e.g. an embedded database, or a compiled
+ * template cache that many envs need).
+ *
+ * <p>Each instance is reference-counted by the envs that used it. When the
+ * last of these envs is shut down (see {@link GuiceBerry#shutDownEnv}), the
+ * instance is thrown away (and closed, if it is {@link java.io.Closeable}).
+ *
+ * <p>The instance is built by the first env that needs it, so it must only
+ * depend on objects that are the same in all envs that share it.
+ *
+ * @see UniverseSharedScope implementation details
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ScopeAnnotation
+public @interface UniverseShared {}
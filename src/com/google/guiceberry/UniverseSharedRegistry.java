@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The instances of all {@link UniverseShared} keys of a
+ * {@link GuiceBerryUniverse}, each with the set of envs (i.e. of
+ * {@link UniverseSharedScope}s) that are using it.
+ */
+final class UniverseSharedRegistry {
+
+  private final ConcurrentMap<Key<?>, Entry> entries =
+      new ConcurrentHashMap<Key<?>, Entry>();
+
+  /**
+   * Returns the shared instance for {@code key}, building it with
+   * {@code creator} if there is none, and records {@code user} as one of its
+   * users.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T get(Key<T> key, Provider<T> creator, UniverseSharedScope user) {
+    while (true) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entries.putIfAbsent(key, new Entry());
+        entry = entries.get(key);
+      }
+      synchronized (entry) {
+        if (entry.released) {
+          // We lost a race with the release of the last user of this entry
+          continue;
+        }
+        if (entry.instance == null) {
+          entry.instance = creator.get();
+        }
+        entry.users.add(user);
+        return (T) entry.instance;
+      }
+    }
+  }
+
+  /**
+   * Removes {@code user} from the users of all instances. The instances that
+   * are left with no users are thrown away.
+   *
+   * @throws RuntimeException if closing any of these instances failed.
+   */
+  void release(UniverseSharedScope user) {
+    List<Object> toClose = Lists.newArrayList();
+    for (Map.Entry<Key<?>, Entry> mapEntry : entries.entrySet()) {
+      Entry entry = mapEntry.getValue();
+      synchronized (entry) {
+        if (entry.users.remove(user) && entry.users.isEmpty()) {
+          entry.released = true;
+          entries.remove(mapEntry.getKey(), entry);
+          toClose.add(entry.instance);
+        }
+      }
+    }
+    Closeables.closeAll(toClose, String.format(
+        "@%s instances", UniverseShared.class.getSimpleName()));
+  }
+
+  /**
+   * Returns the number of envs using the instance of {@code key}.
+   */
+  int getUserCount(Key<?> key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return 0;
+    }
+    synchronized (entry) {
+      return entry.users.size();
+    }
+  }
+
+  private static final class Entry {
+    final Set<UniverseSharedScope> users = Sets.newHashSet();
+    Object instance;
+    boolean released;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.Singleton;
+
+/**
+ * Implementation of the {@link UniverseShared} annotation. There is one
+ * instance of this per GuiceBerry Env, which acts as that env's reference to
+ * the instances in the {@link UniverseSharedRegistry}.
+ *
+ * @see Scope
+ */
+@Singleton
+class UniverseSharedScope implements Scope {
+
+  private final GuiceBerryUniverse universe;
+
+  UniverseSharedScope(GuiceBerryUniverse universe) {
+    this.universe = universe;
+  }
+
+  /**
+   * Releases all the shared instances used by this env.
+   */
+  void release() {
+    universe.getUniverseSharedRegistry().release(this);
+  }
+
+  public <T> Provider<T> scope(final Key<T> key, final Provider<T> creator) {
+    return new Provider<T>() {
+      public T get() {
+        return universe.getUniverseSharedRegistry().get(key, creator, UniverseSharedScope.this);
+      }
+
+      @Override
+      public String toString() {
+        return String.format("%s[%s]", creator, UniverseShared.class.getSimpleName());
+      }
+    };
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+/**
+ * The source of time of a server (or any other code) under test. Servers that
+ * read the time through an injected {@code Provider<Clock>}, rather than
+ * through {@link System}, can have time controlled by their tests (see
+ * {@link VirtualTime}).
+ */
+public interface Clock {
+
+  /** The equivalent of {@link System#nanoTime()}. */
+  long nanoTime();
+
+  /** The equivalent of {@link System#currentTimeMillis()}. */
+  long currentTimeMillis();
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Binds the real {@link Clock} and a {@link ScheduledExecutorService} for a
+ * server, which its tests can replace by {@link VirtualTime}'s when the server
+ * {@link com.google.inject.Injector} is built through an
+ * {@link com.google.guiceberry.controllable.IcMaster} (see
+ * {@link VirtualTime#controlledBy}).
+ */
+public final class ClockModule extends AbstractModule {
+
+  @Override
+  protected void configure() {
+    bind(Clock.class).toInstance(SystemClock.INSTANCE);
+  }
+
+  @Provides @Singleton
+  ScheduledExecutorService getScheduledExecutorService() {
+    return Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("ClockModule scheduler %d")
+        .build());
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Clock} whose time only moves when told to (see {@link #advance}),
+ * and its {@link #getScheduledExecutorService() ScheduledExecutorService},
+ * whose tasks run when this clock's time reaches theirs, in the thread that
+ * advanced it.
+ *
+ * <p>This makes code that waits for timeouts, TTLs and the like testable
+ * without the test having to actually wait.
+ */
+public final class VirtualClock implements Clock {
+
+  private final long millisAtStart;
+
+  private final Scheduler scheduler = new Scheduler();
+
+  /**
+   * The nanos elapsed since this clock was created. Guarded by {@code this}.
+   */
+  private long nanos = 0;
+
+  /**
+   * Creates a clock that starts at the real current time.
+   */
+  public VirtualClock() {
+    this(System.currentTimeMillis());
+  }
+
+  /**
+   * Creates a clock that starts at the given {@code currentTimeMillis}.
+   */
+  public VirtualClock(long currentTimeMillis) {
+    this.millisAtStart = currentTimeMillis;
+  }
+
+  public synchronized long nanoTime() {
+    return nanos;
+  }
+
+  public synchronized long currentTimeMillis() {
+    return millisAtStart + TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  /**
+   * Moves time forward by {@code duration}, running, in order, all tasks of
+   * the {@link #getScheduledExecutorService()} whose time comes in the
+   * meanwhile. When each task runs, this clock tells its time.
+   */
+  public void advance(long duration, TimeUnit unit) {
+    if (duration < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Time can't move backwards, but it is being advanced by %d %s.", duration, unit));
+    }
+    long target;
+    synchronized (this) {
+      target = nanos + unit.toNanos(duration);
+    }
+    ScheduledTask<?> task;
+    while ((task = scheduler.pollDueBy(target)) != null) {
+      synchronized (this) {
+        nanos = Math.max(nanos, task.time);
+      }
+      task.run();
+    }
+    synchronized (this) {
+      nanos = Math.max(nanos, target);
+    }
+  }
+
+  /**
+   * Runs the tasks of the {@link #getScheduledExecutorService()} that are due
+   * now (e.g. the ones given to it with no delay), without moving time.
+   */
+  public void runDueTasks() {
+    advance(0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the {@link ScheduledExecutorService} that runs its tasks in this
+   * clock's time (see {@link #advance}).
+   */
+  public ScheduledExecutorService getScheduledExecutorService() {
+    return scheduler;
+  }
+
+  /**
+   * Returns the number of tasks waiting to run.
+   */
+  public int getPendingTaskCount() {
+    return scheduler.getPendingTaskCount();
+  }
+
+  private final class Scheduler extends AbstractExecutorService
+      implements ScheduledExecutorService {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private final PriorityQueue<ScheduledTask<?>> queue = new PriorityQueue<ScheduledTask<?>>();
+
+    private boolean shutdown;
+
+    synchronized ScheduledTask<?> pollDueBy(long time) {
+      ScheduledTask<?> next = queue.peek();
+      if ((next == null) || (next.time > time)) {
+        return null;
+      }
+      return queue.poll();
+    }
+
+    synchronized int getPendingTaskCount() {
+      return queue.size();
+    }
+
+    private <V> ScheduledTask<V> enqueue(ScheduledTask<V> task) {
+      synchronized (this) {
+        if (shutdown) {
+          throw new RejectedExecutionException(
+              "The ScheduledExecutorService of this VirtualClock was shut down.");
+        }
+        queue.add(task);
+      }
+      return task;
+    }
+
+    synchronized void requeue(ScheduledTask<?> task) {
+      if (!shutdown) {
+        queue.add(task);
+      }
+    }
+
+    private long timeIn(long delay, TimeUnit unit) {
+      return nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      return enqueue(new ScheduledTask<Void>(
+          command, null, timeIn(delay, unit), 0, sequence.getAndIncrement()));
+    }
+
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      return enqueue(new ScheduledTask<V>(
+          callable, timeIn(delay, unit), sequence.getAndIncrement()));
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+        long period, TimeUnit unit) {
+      if (period <= 0) {
+        throw new IllegalArgumentException();
+      }
+      return enqueue(new ScheduledTask<Void>(command, null, timeIn(initialDelay, unit),
+          unit.toNanos(period), sequence.getAndIncrement()));
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+        long delay, TimeUnit unit) {
+      if (delay <= 0) {
+        throw new IllegalArgumentException();
+      }
+      return enqueue(new ScheduledTask<Void>(command, null, timeIn(initialDelay, unit),
+          -unit.toNanos(delay), sequence.getAndIncrement()));
+    }
+
+    public void execute(Runnable command) {
+      schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void shutdown() {
+      shutdown = true;
+    }
+
+    public synchronized List<Runnable> shutdownNow() {
+      shutdown = true;
+      List<Runnable> result = Lists.<Runnable>newArrayList(queue);
+      queue.clear();
+      return result;
+    }
+
+    public synchronized boolean isShutdown() {
+      return shutdown;
+    }
+
+    public synchronized boolean isTerminated() {
+      return shutdown && queue.isEmpty();
+    }
+
+    /**
+     * Time only moves through {@link VirtualClock#advance}, so there's
+     * nothing to wait for.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return isTerminated();
+    }
+  }
+
+  private final class ScheduledTask<V> extends FutureTask<V>
+      implements RunnableScheduledFuture<V> {
+
+    /** The time this task is to run next, in this clock's nanos. */
+    private long time;
+
+    /**
+     * Zero for one-shot tasks; a positive number for fixed-rate tasks; a
+     * negative one for fixed-delay ones.
+     */
+    private final long period;
+
+    /** Breaks ties between tasks of the same time. */
+    private final long sequenceNumber;
+
+    ScheduledTask(Runnable runnable, V result, long time, long period, long sequenceNumber) {
+      super(runnable, result);
+      this.time = time;
+      this.period = period;
+      this.sequenceNumber = sequenceNumber;
+    }
+
+    ScheduledTask(Callable<V> callable, long time, long sequenceNumber) {
+      super(callable);
+      this.time = time;
+      this.period = 0;
+      this.sequenceNumber = sequenceNumber;
+    }
+
+    public boolean isPeriodic() {
+      return period != 0;
+    }
+
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(time - nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      if (other instanceof ScheduledTask) {
+        ScheduledTask<?> that = (ScheduledTask<?>) other;
+        if (time != that.time) {
+          return (time < that.time) ? -1 : 1;
+        }
+        return (sequenceNumber < that.sequenceNumber) ? -1 : 1;
+      }
+      long difference = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+      return (difference == 0) ? 0 : ((difference < 0) ? -1 : 1);
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (runAndReset()) {
+        time = (period > 0) ? time + period : nanoTime() - period;
+        scheduler.requeue(this);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean result = super.cancel(mayInterruptIfRunning);
+      synchronized (scheduler) {
+        scheduler.queue.remove(this);
+      }
+      return result;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("VirtualClock at %d ns", nanoTime());
+  }
+}
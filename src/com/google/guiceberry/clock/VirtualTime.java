@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+import com.google.common.testing.TearDown;
+import com.google.common.testing.TearDownAccepter;
+import com.google.guiceberry.TestScoped;
+import com.google.guiceberry.controllable.IcMaster;
+import com.google.guiceberry.controllable.InjectionController;
+import com.google.guiceberry.controllable.StaticMapInjectionController;
+import com.google.inject.Inject;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets a test control the time of the server it tests. Injecting this into a
+ * test makes the server's {@link Clock} and {@link ScheduledExecutorService}
+ * (see {@link ClockModule}) be a {@link VirtualClock} and its scheduler, for
+ * the requests of that test only, so that the test can make time pass (e.g. to
+ * have a session expire) through {@link #advance} right away. Other tests
+ * running at the same time against the same server are not affected.
+ *
+ * <p>For this, the GuiceBerry Env must declare these keys as controlled
+ * through {@link #controlIn}, and the server must read them through
+ * {@link com.google.inject.Provider}s, e.g.:
+ *
+ * <pre>
+ * icMaster = VirtualTime.controlIn(new IcMaster());
+ * install(icMaster.buildClientModule());
+ * ...
+ * serverInjector = Guice.createInjector(
+ *     icMaster.buildServerModule(new ClockModule(), new MyServerModule()));
+ * </pre>
+ *
+ * <p>Since the {@link VirtualClock} is shared with the server through a
+ * {@link StaticMapInjectionController}, the server must run in the same JVM
+ * as the test.
+ */
+@TestScoped
+public final class VirtualTime {
+
+  private final VirtualClock clock = new VirtualClock();
+
+  @Inject
+  VirtualTime(InjectionController<Clock> clockController,
+      InjectionController<ScheduledExecutorService> schedulerController,
+      TearDownAccepter tearDownAccepter) {
+    tearDownAccepter.addTearDown(new TearDown() {
+      public void tearDown() throws Exception {
+        clock.getScheduledExecutorService().shutdownNow();
+      }
+    });
+    clockController.setOverride(clock);
+    schedulerController.setOverride(clock.getScheduledExecutorService());
+  }
+
+  /**
+   * Declares the {@link Clock} and {@link ScheduledExecutorService} as
+   * controlled by the given {@code icMaster}.
+   *
+   * @return {@code icMaster}, for method chaining
+   */
+  public static IcMaster controlIn(IcMaster icMaster) {
+    return icMaster.thatControls(StaticMapInjectionController.strategy(),
+        Clock.class, ScheduledExecutorService.class);
+  }
+
+  /**
+   * Returns the {@link VirtualClock} the server sees during this test.
+   */
+  public VirtualClock getClock() {
+    return clock;
+  }
+
+  /**
+   * @see VirtualClock#advance
+   */
+  public void advance(long duration, TimeUnit unit) {
+    clock.advance(duration, unit);
+  }
+}
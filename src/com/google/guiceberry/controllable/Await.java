@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.controllable;
+
+import com.google.common.collect.Maps;
+import com.google.common.testing.TearDown;
+import com.google.common.testing.TearDownAccepter;
+import com.google.guiceberry.TestId;
+import com.google.guiceberry.TestScoped;
+import com.google.inject.Inject;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Inject this into a test to wait for signals given by the server under test
+ * through {@link TestSignals}, instead of sleeping and polling, e.g.:
+ *
+ * <pre>
+ *   {@code @}Inject
+ *   Await await;
+ *
+ *   public void testOrderIsShipped() {
+ *     ...click on "buy"...
+ *     await.until("shipped", 10, TimeUnit.SECONDS);
+ *     ...
+ *   }
+ * </pre>
+ *
+ * <p>Each call to {@link #until} waits for one more signal than the previous
+ * calls for that same signal did, so a test can wait for a signal given many
+ * times. Signals given before the test waits for them count as well.
+ *
+ * <p>The time each test spent waiting is logged when it is torn down (see
+ * also {@link #getWaitNanos()}).
+ */
+@TestScoped
+public final class Await {
+
+  private static final Logger logger = Logger.getLogger(Await.class.getName());
+
+  private final TestId testId;
+
+  /**
+   * How many times each signal was waited for so far.
+   */
+  private final ConcurrentMap<String, Integer> signalToAwaitedCountMap =
+      Maps.newConcurrentMap();
+
+  private final AtomicLong waitNanos = new AtomicLong();
+
+  @Inject
+  Await(final TestId testId, TearDownAccepter tearDownAccepter) {
+    this.testId = testId;
+    SignalChannel.open(testId);
+    tearDownAccepter.addTearDown(new TearDown() {
+      public void tearDown() throws Exception {
+        SignalChannel.close(testId);
+        if (waitNanos.get() > 0) {
+          logger.fine(String.format("Test '%s' waited %d ms for signals %s.",
+              testId, TimeUnit.NANOSECONDS.toMillis(waitNanos.get()),
+              signalToAwaitedCountMap));
+        }
+      }
+    });
+  }
+
+  /**
+   * Waits until {@code signal} is given to this test once more, but for no
+   * longer than {@code timeout}.
+   *
+   * @throws AssertionError if the timeout is reached.
+   */
+  public void until(String signal, long timeout, TimeUnit unit) {
+    int count = next(signal);
+    long start = System.nanoTime();
+    boolean signaled;
+    try {
+      signaled = SignalChannel.await(testId, signal, count, start + unit.toNanos(timeout));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(String.format(
+          "Interrupted while waiting for the signal '%s'.", signal), e);
+    } finally {
+      waitNanos.addAndGet(System.nanoTime() - start);
+    }
+    if (!signaled) {
+      throw new AssertionError(String.format(
+          "The signal '%s' was not given to test '%s' within %d %s.",
+          signal, testId, timeout, unit.toString().toLowerCase()));
+    }
+  }
+
+  /**
+   * Returns the total time this test spent in {@link #until}.
+   */
+  public long getWaitNanos() {
+    return waitNanos.get();
+  }
+
+  private synchronized int next(String signal) {
+    Integer previous = signalToAwaitedCountMap.get(signal);
+    int result = (previous == null) ? 1 : previous + 1;
+    signalToAwaitedCountMap.put(signal, result);
+    return result;
+  }
+}
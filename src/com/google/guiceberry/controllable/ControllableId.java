@@ -39,6 +39,14 @@ public class ControllableId<T> {
     this.key = key;
   }
 
+  TestId getTestId() {
+    return testId;
+  }
+
+  Key<T> getKey() {
+    return key;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hashCode(testId, key);
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.controllable;
+
+import com.google.inject.Provider;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The {@link #strategy()} static factory method gives forth an
+ * {@link IcStrategy} that shares overrides through files in a directory of the
+ * local disk, so that a test can control the injections of a server running
+ * in another JVM of the same host (e.g. one shared by several forked test
+ * JVMs, see {@link com.google.guiceberry.host.HostSharedServer}).
+ *
+ * <p>Each override is written, serialized, to a file named after its
+ * {@link ControllableId}, i.e. after its key and {@link com.google.guiceberry.TestId},
+ * so tests running at the same time against the same server don't see each
+ * other's overrides. Overrides must thus be {@link Serializable}.
+ *
+ * <p>The directory is {@code guiceberry-ic} in {@code java.io.tmpdir}, unless
+ * the {@link #DIRECTORY_SYSTEM_PROPERTY_NAME} system property says otherwise;
+ * test and server must, of course, agree on it.
+ */
+public final class FileInjectionController {
+
+  public static final String DIRECTORY_SYSTEM_PROPERTY_NAME = "GuiceBerryIcDirectory";
+
+  private FileInjectionController() {}
+
+  public static IcStrategy strategy() {
+    return new IcStrategy(IcClientStrategyImpl.class, IcServerStrategyImpl.class);
+  }
+
+  static File getDirectory() {
+    String directory = System.getProperty(DIRECTORY_SYSTEM_PROPERTY_NAME);
+    if (directory == null) {
+      return new File(System.getProperty("java.io.tmpdir"), "guiceberry-ic");
+    }
+    return new File(directory);
+  }
+
+  static File fileFor(ControllableId<?> controllableId) {
+    return new File(getDirectory(), digest(
+        controllableId.getTestId() + "|" + controllableId.getKey()) + ".override");
+  }
+
+  private static String digest(String text) {
+    try {
+      byte[] bytes = MessageDigest.getInstance("SHA-1").digest(text.getBytes("UTF-8"));
+      StringBuilder result = new StringBuilder();
+      for (byte b : bytes) {
+        result.append(String.format("%02x", b));
+      }
+      return result.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static final class IcClientStrategyImpl implements IcStrategy.ClientSupport {
+    public <T> void setOverride(ControllableId<T> controllableId, T override) {
+      if ((override != null) && !(override instanceof Serializable)) {
+        throw new IllegalArgumentException(String.format(
+            "The override for '%s' must be Serializable to be shared through "
+            + "files, but '%s' is not.",
+            controllableId, override.getClass().getName()));
+      }
+      File file = fileFor(controllableId);
+      File directory = file.getParentFile();
+      directory.mkdirs();
+      try {
+        // Written aside and then renamed, so that the server never reads
+        // half a file
+        File temp = File.createTempFile("override", ".tmp", directory);
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(temp));
+        try {
+          out.writeObject(override);
+        } finally {
+          out.close();
+        }
+        if (!temp.renameTo(file)) {
+          file.delete();
+          if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException(String.format("Could not rename '%s' to '%s'.", temp, file));
+          }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(String.format(
+            "Error while writing the override for '%s'.", controllableId), e);
+      }
+    }
+
+    public <T> void resetOverride(ControllableId<T> controllableId) {
+      fileFor(controllableId).delete();
+    }
+  }
+
+  private static final class IcServerStrategyImpl implements IcStrategy.ServerSupport {
+    @SuppressWarnings("unchecked")
+    public <T> T getOverride(
+        ControllableId<T> controllableId,
+        Provider<? extends T> delegate) {
+      File file = fileFor(controllableId);
+      try {
+        ObjectInputStream in = new ContextObjectInputStream(new FileInputStream(file));
+        try {
+          return (T) in.readObject();
+        } finally {
+          in.close();
+        }
+      } catch (IOException e) {
+        throw new IllegalArgumentException(String.format(
+            "The injection of '%s' is not currently being controlled.",
+            controllableId.toString()), e);
+      } catch (ClassNotFoundException e) {
+        throw new RuntimeException(String.format(
+            "Error while reading the override for '%s'.", controllableId), e);
+      }
+    }
+
+    public <T> boolean isControlled(ControllableId<T> controllableId) {
+      return fileFor(controllableId).exists();
+    }
+  }
+
+  /**
+   * Resolves classes through the thread's context class loader, which is
+   * likely the one that knows the server's classes.
+   */
+  private static final class ContextObjectInputStream extends ObjectInputStream {
+    ContextObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass description)
+        throws IOException, ClassNotFoundException {
+      ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      if (classLoader != null) {
+        try {
+          return Class.forName(description.getName(), false, classLoader);
+        } catch (ClassNotFoundException ignored) {
+          // Let the default lookup have a go
+        }
+      }
+      return super.resolveClass(description);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.controllable;
+
+import com.google.common.collect.Maps;
+import com.google.guiceberry.TestId;
+
+import java.util.Map;
+
+/**
+ * The channel between {@link TestSignals} and {@link Await}: counts the
+ * signals given to each test that is currently awaiting them. Much like the
+ * {@link StaticMapInjectionController}, it is static, so the server must run
+ * in the same JVM (and {@link ClassLoader}) as the test.
+ */
+final class SignalChannel {
+
+  private static final Object lock = new Object();
+
+  /**
+   * The count of each signal of each open test. Guarded by {@link #lock}.
+   */
+  private static final Map<TestId, Map<String, Integer>> testIdToSignalCountMap =
+      Maps.newHashMap();
+
+  private SignalChannel() {}
+
+  /**
+   * Starts counting the signals given to {@code testId}. Signals given to
+   * tests that are not open are dropped.
+   */
+  static void open(TestId testId) {
+    synchronized (lock) {
+      if (!testIdToSignalCountMap.containsKey(testId)) {
+        testIdToSignalCountMap.put(testId, Maps.<String, Integer>newHashMap());
+      }
+    }
+  }
+
+  static void close(TestId testId) {
+    synchronized (lock) {
+      testIdToSignalCountMap.remove(testId);
+    }
+  }
+
+  static void signal(TestId testId, String signal) {
+    synchronized (lock) {
+      Map<String, Integer> counts = testIdToSignalCountMap.get(testId);
+      if (counts == null) {
+        return;
+      }
+      Integer count = counts.get(signal);
+      counts.put(signal, (count == null) ? 1 : count + 1);
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Waits until {@code signal} was given to {@code testId} at least
+   * {@code count} times, or until {@code System.nanoTime()} reaches
+   * {@code deadlineNanos}.
+   *
+   * @return whether the signal was given that many times.
+   */
+  static boolean await(TestId testId, String signal, int count, long deadlineNanos)
+      throws InterruptedException {
+    synchronized (lock) {
+      while (true) {
+        Map<String, Integer> counts = testIdToSignalCountMap.get(testId);
+        Integer current = (counts == null) ? null : counts.get(signal);
+        if ((current != null) && (current >= count)) {
+          return true;
+        }
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+          return false;
+        }
+        long millis = Math.max(1, remainingNanos / 1000000);
+        lock.wait(millis);
+      }
+    }
+  }
+}
@@ -35,7 +35,11 @@ import java.util.Map;
  */
 public final class StaticMapInjectionController {
 
-  private static final Map<ControllableId<?>,Object> map = Maps.newHashMap();
+  /**
+   * Concurrent, since tests running at the same time (and their servers)
+   * control their injections independently.
+   */
+  private static final Map<ControllableId<?>,Object> map = Maps.newConcurrentMap();
 
   public static IcStrategy strategy() {
     return new IcStrategy(IcClientStrategyImpl.class, IcServerStrategyImpl.class);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.controllable;
+
+import com.google.guiceberry.TestId;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * Lets a server tell the test whose request it is serving that something
+ * happened (e.g. that an asynchronous job is done), waking up that test's
+ * {@link Await} right away, rather than having the test poll for it.
+ *
+ * <p>The test is found through the server's {@link TestId} (e.g. through the
+ * {@link TestIdServerModule}), so signals given while serving one test never
+ * wake up another. Signals given while serving no test are ignored, as are
+ * signals to tests that don't inject an {@link Await}.
+ *
+ * <p>Like the {@link StaticMapInjectionController}, this requires the server
+ * to run in the same JVM as the test.
+ */
+public final class TestSignals {
+
+  private final Provider<TestId> testIdProvider;
+
+  @Inject
+  TestSignals(Provider<TestId> testIdProvider) {
+    this.testIdProvider = testIdProvider;
+  }
+
+  /**
+   * Gives {@code signal} to the test being served, if any.
+   */
+  public void signal(String signal) {
+    TestId testId = testIdProvider.get();
+    if (testId != null) {
+      signal(testId, signal);
+    }
+  }
+
+  /**
+   * Gives {@code signal} to the test given by {@code testId}, e.g. from a
+   * thread that doesn't serve requests.
+   */
+  public static void signal(TestId testId, String signal) {
+    SignalChannel.signal(testId, signal);
+  }
+}
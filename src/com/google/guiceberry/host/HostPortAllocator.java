@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.host;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.FileLock;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Hands out ports to the servers of GuiceBerry Envs, free of the races of
+ * probing for a free port (as in {@code FreePortFinder}) when many forked test
+ * JVMs start servers at the same time.
+ *
+ * <p>Each JVM leases ranges of {@link #RANGE_SIZE_SYSTEM_PROPERTY_NAME} ports
+ * (100 by default) from a host-wide registry, a directory with a
+ * {@code range-<first port>.lock} file per range, in the
+ * {@link HostSharedServer#DIRECTORY_SYSTEM_PROPERTY_NAME} directory. A range
+ * is leased by locking its file, under the registry's lock, and stays so until
+ * the JVM exits (or dies), so no two JVMs ever hand out the same port. Ranges
+ * start at {@link #FIRST_PORT_SYSTEM_PROPERTY_NAME} (20000 by default).
+ *
+ * <p>Within its ranges, a JVM hands each port out only once, and only after
+ * checking that it can actually be bound (i.e. no process outside GuiceBerry
+ * is using it).
+ *
+ * <p>See {@link HostPortProvider} to inject these ports.
+ */
+public final class HostPortAllocator {
+
+  public static final String FIRST_PORT_SYSTEM_PROPERTY_NAME = "GuiceBerryPortRangeFirstPort";
+
+  public static final String RANGE_SIZE_SYSTEM_PROPERTY_NAME = "GuiceBerryPortRangeSize";
+
+  private static final int DEFAULT_FIRST_PORT = 20000;
+
+  private static final int DEFAULT_RANGE_SIZE = 100;
+
+  private static final int LAST_PORT = 65535;
+
+  private static final Logger logger = Logger.getLogger(HostPortAllocator.class.getName());
+
+  private static HostPortAllocator instance;
+
+  /**
+   * The range files leased by any allocator of this JVM. Since closing any
+   * channel of a file may release all the locks this JVM holds on it, these
+   * must never be opened again. Guarded by {@code HostPortAllocator.class}.
+   */
+  private static final Set<File> locallyLeasedRangeFiles = Sets.newHashSet();
+
+  private final File directory;
+  private final int firstPort;
+  private final int rangeSize;
+
+  /**
+   * The ranges leased by this allocator, by their first port, and the locks
+   * of their files, which must be held for as long as the JVM lives.
+   */
+  private final List<Integer> ranges = Lists.newArrayList();
+  private final List<FileLock> rangeLocks = Lists.newArrayList();
+
+  /**
+   * The next port to try in the current (i.e. last) range.
+   */
+  private int nextPort;
+
+  HostPortAllocator(File directory, int firstPort, int rangeSize) {
+    if ((firstPort < 1) || (rangeSize < 1) || (firstPort + rangeSize - 1 > LAST_PORT)) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid port ranges: first port %d, range size %d.", firstPort, rangeSize));
+    }
+    this.directory = directory.getAbsoluteFile();
+    this.firstPort = firstPort;
+    this.rangeSize = rangeSize;
+  }
+
+  /**
+   * Returns the allocator of this JVM.
+   */
+  public static synchronized HostPortAllocator getInstance() {
+    if (instance == null) {
+      instance = new HostPortAllocator(
+          new File(HostSharedServer.getBaseDirectory(), "ports"),
+          Integer.getInteger(FIRST_PORT_SYSTEM_PROPERTY_NAME, DEFAULT_FIRST_PORT),
+          Integer.getInteger(RANGE_SIZE_SYSTEM_PROPERTY_NAME, DEFAULT_RANGE_SIZE));
+    }
+    return instance;
+  }
+
+  /**
+   * Returns a port no other GuiceBerry JVM in this host was, or will be,
+   * given, and which could be bound just now.
+   *
+   * @throws IllegalStateException if all ranges are in use.
+   */
+  public synchronized int allocate() {
+    while (true) {
+      if (ranges.isEmpty() || (nextPort >= last(ranges) + rangeSize)) {
+        leaseRange();
+      }
+      int port = nextPort++;
+      if (isFree(port)) {
+        return port;
+      }
+    }
+  }
+
+  /**
+   * Returns the first port of each of the ranges leased so far.
+   */
+  public synchronized List<Integer> getRanges() {
+    return Lists.newArrayList(ranges);
+  }
+
+  private static int last(List<Integer> list) {
+    return list.get(list.size() - 1);
+  }
+
+  private void leaseRange() {
+    synchronized (HostPortAllocator.class) {
+      leaseRangeHoldingJvmLock();
+    }
+  }
+
+  private void leaseRangeHoldingJvmLock() {
+    directory.mkdirs();
+    try {
+      RandomAccessFile registryFile = new RandomAccessFile(new File(directory, "lock"), "rw");
+      try {
+        FileLock registryLock = registryFile.getChannel().lock();
+        try {
+          int start = ranges.isEmpty() ? firstPort : last(ranges) + rangeSize;
+          for (int range = start; range + rangeSize - 1 <= LAST_PORT; range += rangeSize) {
+            File rangeFileName = new File(directory, "range-" + range + ".lock");
+            if (locallyLeasedRangeFiles.contains(rangeFileName)) {
+              continue;
+            }
+            RandomAccessFile rangeFile = new RandomAccessFile(rangeFileName, "rw");
+            FileLock rangeLock = rangeFile.getChannel().tryLock();
+            if (rangeLock == null) {
+              // Some other JVM has it
+              rangeFile.close();
+              continue;
+            }
+            locallyLeasedRangeFiles.add(rangeFileName);
+            ranges.add(range);
+            rangeLocks.add(rangeLock);
+            nextPort = range;
+            logger.fine(String.format("Leased the ports %d to %d.", range, range + rangeSize - 1));
+            return;
+          }
+        } finally {
+          registryLock.release();
+        }
+      } finally {
+        registryFile.close();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(String.format(
+          "Error while leasing a port range in '%s'.", directory), e);
+    }
+    throw new IllegalStateException(String.format(
+        "All port ranges from %d on are in use.", firstPort));
+  }
+
+  private static boolean isFree(int port) {
+    ServerSocket socket = null;
+    try {
+      socket = new ServerSocket();
+      socket.setReuseAddress(false);
+      socket.bind(new InetSocketAddress(port));
+      return true;
+    } catch (IOException inUse) {
+      return false;
+    } finally {
+      if (socket != null) {
+        try {
+          socket.close();
+        } catch (IOException ignored) {
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.host;
+
+import com.google.inject.Provider;
+
+/**
+ * A {@link Provider} of ports given by the {@link HostPortAllocator}, to be
+ * bound by GuiceBerry Envs that start servers, e.g.:
+ *
+ * <pre>
+ * bind(Integer.class).annotatedWith(PortNumber.class)
+ *     .toProvider(HostPortProvider.class).in(Singleton.class);
+ * </pre>
+ *
+ * <p>Each provision allocates a new port, so it should usually be bound as a
+ * {@link com.google.inject.Singleton}.
+ */
+public final class HostPortProvider implements Provider<Integer> {
+
+  public Integer get() {
+    return HostPortAllocator.getInstance().allocate();
+  }
+}
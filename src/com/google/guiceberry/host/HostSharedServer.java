@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.host;
+
+import com.google.common.collect.Sets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A server started once per host, and shared by all the (forked) test JVMs
+ * that {@link #attach} to it, rather than started by each of them.
+ *
+ * <p>Typically, a GuiceBerry Env's {@link com.google.guiceberry.GuiceBerryEnvMain}
+ * attaches to the server, binds its {@link #getPort()} to be used by the
+ * tests, and its {@link com.google.guiceberry.GuiceBerryEnvShutdown} calls
+ * {@link #detach()}. Since tests of different JVMs then run against the same
+ * server at the same time, they must be told apart on the server side through
+ * their {@link com.google.guiceberry.TestId}s (e.g. by their
+ * {@link com.google.guiceberry.TestId#COOKIE_NAME} cookie), and controllable
+ * injections must use a cross-process strategy, such as
+ * {@link com.google.guiceberry.controllable.FileInjectionController}.
+ *
+ * <p>JVMs coordinate through files in a directory named after the server, in
+ * {@code guiceberry-host} in {@code java.io.tmpdir} (unless the
+ * {@link #DIRECTORY_SYSTEM_PROPERTY_NAME} system property says otherwise):
+ *
+ * <ul>
+ *   <li>{@code lock} is locked while a JVM attaches or detaches;
+ *   <li>{@code owner.lock} is locked by the JVM running the server for as long
+ *     as it does, so a server whose JVM died is detected and started anew;
+ *   <li>{@code port} is the rendezvous file, holding the server's port;
+ *   <li>{@code clients/} has a file for each attached JVM, locked by it, which
+ *     is how the server's JVM counts its clients (it is a client itself).
+ * </ul>
+ *
+ * <p>The JVM that started the server stops it when the last client detaches:
+ * its own {@link #detach()} (which is also called by a shutdown hook, should
+ * the JVM exit first) waits for the other clients to detach, or die.
+ */
+public final class HostSharedServer {
+
+  public static final String DIRECTORY_SYSTEM_PROPERTY_NAME = "GuiceBerryHostSharedDirectory";
+
+  /**
+   * The server proper.
+   */
+  public interface Server {
+
+    /**
+     * Starts the server, and returns the port it listens to.
+     */
+    int start() throws Exception;
+
+    void stop() throws Exception;
+  }
+
+  private static final Logger logger = Logger.getLogger(HostSharedServer.class.getName());
+
+  private static final long POLL_MILLIS = 100;
+
+  /**
+   * The ids of the clients attached from this JVM. File locks are held on
+   * behalf of the whole JVM, so these can't be told apart from dead ones by
+   * trying to lock their files. Guarded by {@code HostSharedServer.class},
+   * which also serializes the attaching and detaching within this JVM.
+   */
+  private static final Set<String> localClientIds = Sets.newHashSet();
+
+  /**
+   * The directories of the servers started by this JVM. Their
+   * {@code owner.lock} files must not even be opened by this JVM, since
+   * closing any channel to a file may release all of the JVM's locks on it.
+   * Guarded by {@code HostSharedServer.class}.
+   */
+  private static final Set<File> localOwnedDirectories = Sets.newHashSet();
+
+  private final String name;
+  private final File directory;
+  private final int port;
+  private final String clientId = UUID.randomUUID().toString();
+
+  /**
+   * Only for the JVM that started the server.
+   */
+  private final Server ownedServer;
+  private final RandomAccessFile ownerFile;
+  private final FileLock ownerLock;
+  private final Thread shutdownHook;
+
+  private RandomAccessFile clientFile;
+  private FileLock clientLock;
+  private boolean detached = false;
+
+  private HostSharedServer(String name, File directory, int port,
+      Server ownedServer, RandomAccessFile ownerFile, FileLock ownerLock) {
+    this.name = name;
+    this.directory = directory;
+    this.port = port;
+    this.ownedServer = ownedServer;
+    this.ownerFile = ownerFile;
+    this.ownerLock = ownerLock;
+    if (ownedServer == null) {
+      this.shutdownHook = null;
+    } else {
+      this.shutdownHook = new Thread("GuiceBerry host-shared server '" + name + "'") {
+        @Override
+        public void run() {
+          try {
+            detach();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+  }
+
+  /**
+   * Attaches to the server called {@code name}, having {@code server}
+   * started by this JVM if there is no live one in this host yet.
+   */
+  public static HostSharedServer attach(String name, Server server) throws IOException {
+    File directory = new File(getBaseDirectory(), name).getAbsoluteFile();
+    new File(directory, "clients").mkdirs();
+    synchronized (HostSharedServer.class) {
+      RandomAccessFile lockFile = new RandomAccessFile(new File(directory, "lock"), "rw");
+      try {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+          HostSharedServer result = attachToLiveServer(name, directory);
+          if (result == null) {
+            result = startServer(name, directory, server);
+          }
+          result.registerClient();
+          return result;
+        } finally {
+          lock.release();
+        }
+      } finally {
+        lockFile.close();
+      }
+    }
+  }
+
+  static File getBaseDirectory() {
+    String directory = System.getProperty(DIRECTORY_SYSTEM_PROPERTY_NAME);
+    if (directory == null) {
+      return new File(System.getProperty("java.io.tmpdir"), "guiceberry-host");
+    }
+    return new File(directory);
+  }
+
+  private static HostSharedServer attachToLiveServer(String name, File directory)
+      throws IOException {
+    File portFile = new File(directory, "port");
+    if (!portFile.exists()) {
+      return null;
+    }
+    if (!localOwnedDirectories.contains(directory)) {
+      RandomAccessFile ownerFile = new RandomAccessFile(new File(directory, "owner.lock"), "rw");
+      try {
+        FileLock ownerLock = ownerFile.getChannel().tryLock();
+        if (ownerLock != null) {
+          // The JVM that started the server is gone
+          ownerLock.release();
+          return null;
+        }
+      } finally {
+        ownerFile.close();
+      }
+    }
+    return new HostSharedServer(name, directory, readPort(portFile), null, null, null);
+  }
+
+  private static HostSharedServer startServer(String name, File directory, Server server)
+      throws IOException {
+    RandomAccessFile ownerFile = new RandomAccessFile(new File(directory, "owner.lock"), "rw");
+    FileLock ownerLock = null;
+    try {
+      ownerLock = ownerFile.getChannel().tryLock();
+      if (ownerLock == null) {
+        throw new IOException(String.format(
+            "The host-shared server '%s' has an owner, but no port.", name));
+      }
+      // Whoever is left in there was a client of a dead server
+      File[] clients = new File(directory, "clients").listFiles();
+      if (clients != null) {
+        for (File client : clients) {
+          client.delete();
+        }
+      }
+      int port;
+      long start = System.nanoTime();
+      try {
+        port = server.start();
+      } catch (Exception e) {
+        throw new RuntimeException(String.format(
+            "Error while starting the host-shared server '%s'.", name), e);
+      }
+      writePort(new File(directory, "port"), port);
+      logger.info(String.format(
+          "Started the host-shared server '%s' on port %d in %d ms.",
+          name, port, (System.nanoTime() - start) / 1000000));
+      HostSharedServer result =
+        new HostSharedServer(name, directory, port, server, ownerFile, ownerLock);
+      localOwnedDirectories.add(directory);
+      ownerLock = null;
+      return result;
+    } finally {
+      if (ownerLock != null) {
+        ownerLock.release();
+        ownerFile.close();
+      }
+    }
+  }
+
+  private static int readPort(File portFile) throws IOException {
+    InputStream in = new FileInputStream(portFile);
+    try {
+      byte[] bytes = new byte[(int) portFile.length()];
+      int read = 0;
+      while (read < bytes.length) {
+        int n = in.read(bytes, read, bytes.length - read);
+        if (n < 0) {
+          break;
+        }
+        read += n;
+      }
+      return Integer.parseInt(new String(bytes, 0, read, "UTF-8").trim());
+    } catch (NumberFormatException e) {
+      throw new IOException(String.format("Malformed rendezvous file '%s'.", portFile));
+    } finally {
+      in.close();
+    }
+  }
+
+  private static void writePort(File portFile, int port) throws IOException {
+    File temp = new File(portFile.getPath() + ".tmp");
+    OutputStream out = new FileOutputStream(temp);
+    try {
+      out.write(Integer.toString(port).getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+    portFile.delete();
+    if (!temp.renameTo(portFile)) {
+      throw new IOException(String.format("Could not rename '%s' to '%s'.", temp, portFile));
+    }
+  }
+
+  private void registerClient() throws IOException {
+    clientFile = new RandomAccessFile(new File(directory, "clients/" + clientId), "rw");
+    clientLock = clientFile.getChannel().lock();
+    localClientIds.add(clientId);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Returns true if this JVM started (and will stop) the server.
+   */
+  public boolean isOwner() {
+    return ownedServer != null;
+  }
+
+  /**
+   * Returns how many JVMs are attached to this server, this one included.
+   */
+  public int getClientCount() throws IOException {
+    synchronized (HostSharedServer.class) {
+      RandomAccessFile lockFile = new RandomAccessFile(new File(directory, "lock"), "rw");
+      try {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+          return countLiveClients();
+        } finally {
+          lock.release();
+        }
+      } finally {
+        lockFile.close();
+      }
+    }
+  }
+
+  /**
+   * Counts the attached clients, deleting the files of the dead ones. Must be
+   * called while holding both the JVM-wide and the host-wide locks.
+   */
+  private int countLiveClients() throws IOException {
+    int result = 0;
+    File[] clients = new File(directory, "clients").listFiles();
+    if (clients == null) {
+      return result;
+    }
+    for (File client : clients) {
+      if (localClientIds.contains(client.getName())) {
+        result++;
+        continue;
+      }
+      RandomAccessFile file = new RandomAccessFile(client, "rw");
+      try {
+        FileLock lock = file.getChannel().tryLock();
+        if (lock == null) {
+          result++;
+        } else {
+          lock.release();
+          client.delete();
+        }
+      } catch (OverlappingFileLockException e) {
+        result++;
+      } finally {
+        file.close();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Detaches this JVM from the server. If this JVM started it, waits until
+   * all other clients detached too, and then stops it.
+   */
+  public void detach() throws IOException {
+    synchronized (HostSharedServer.class) {
+      if (detached) {
+        return;
+      }
+      detached = true;
+      localClientIds.remove(clientId);
+      clientLock.release();
+      clientFile.close();
+      new File(directory, "clients/" + clientId).delete();
+    }
+    if (ownedServer == null) {
+      return;
+    }
+    if (Thread.currentThread() != shutdownHook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        // Already shutting down
+      }
+    }
+    while (!stopIfLastClient()) {
+      try {
+        Thread.sleep(POLL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(String.format(
+            "Interrupted while waiting for the clients of the host-shared server '%s' to detach.",
+            name));
+      }
+    }
+  }
+
+  private boolean stopIfLastClient() throws IOException {
+    synchronized (HostSharedServer.class) {
+      RandomAccessFile lockFile = new RandomAccessFile(new File(directory, "lock"), "rw");
+      try {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+          if (countLiveClients() > 0) {
+            return false;
+          }
+          new File(directory, "port").delete();
+          try {
+            ownedServer.stop();
+          } catch (Exception e) {
+            throw new RuntimeException(String.format(
+                "Error while stopping the host-shared server '%s'.", name), e);
+          } finally {
+            ownerLock.release();
+            ownerFile.close();
+            localOwnedDirectories.remove(directory);
+          }
+          logger.info(String.format("Stopped the host-shared server '%s'.", name));
+          return true;
+        } finally {
+          lock.release();
+        }
+      } finally {
+        lockFile.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.index;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.MapMaker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The GuiceBerry Env of each test class, as recorded at compile time by the
+ * {@link EnvIndexProcessor}. This makes it possible to know which envs a
+ * suite will use (e.g. to create them up front, or to schedule tests by env)
+ * without loading, let alone reflecting over, any test class.
+ *
+ * <p>Only test classes whose env is declared through an annotation are in
+ * the index, and the envs are the declared ones, i.e. overrides (see
+ * {@link com.google.guiceberry.DefaultEnvSelector#override}) are not taken
+ * into account.
+ */
+public final class EnvIndex {
+
+  /**
+   * The name of the class path resource(s) holding the index.
+   */
+  public static final String RESOURCE_NAME = "META-INF/guiceberry/env-index.properties";
+
+  private static final EnvIndex EMPTY = new EnvIndex(ImmutableMap.<String, String>of());
+
+  private static final Map<ClassLoader, EnvIndex> loaded = new MapMaker().weakKeys().makeMap();
+
+  private final ImmutableMap<String, String> testClassToEnv;
+
+  private EnvIndex(ImmutableMap<String, String> testClassToEnv) {
+    this.testClassToEnv = testClassToEnv;
+  }
+
+  /**
+   * Returns the index of all test classes visible to {@code classLoader},
+   * merging every {@link #RESOURCE_NAME} resource in its class path. Indexes
+   * are read only once per class loader.
+   *
+   * @throws IllegalStateException if an index could not be read.
+   */
+  public static synchronized EnvIndex load(ClassLoader classLoader) {
+    if (classLoader == null) {
+      return EMPTY;
+    }
+    EnvIndex result = loaded.get(classLoader);
+    if (result == null) {
+      result = read(classLoader);
+      loaded.put(classLoader, result);
+    }
+    return result;
+  }
+
+  private static EnvIndex read(ClassLoader classLoader) {
+    Properties properties = new Properties();
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+      while (resources.hasMoreElements()) {
+        URL resource = resources.nextElement();
+        InputStream in = resource.openStream();
+        try {
+          properties.load(in);
+        } finally {
+          in.close();
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(String.format(
+          "Error while reading the GuiceBerry env index '%s'.", RESOURCE_NAME), e);
+    }
+    ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+    for (String testClassName : properties.stringPropertyNames()) {
+      builder.put(testClassName, properties.getProperty(testClassName));
+    }
+    return new EnvIndex(builder.build());
+  }
+
+  /**
+   * Returns the name of the GuiceBerry Env declared by the test class named
+   * {@code testClassName}, or {@code null} if that class is not indexed.
+   */
+  public String getEnvName(String testClassName) {
+    return testClassToEnv.get(testClassName);
+  }
+
+  /**
+   * Returns the names of all indexed test classes, each mapped to the name of
+   * its GuiceBerry Env.
+   */
+  public Map<String, String> getTestClassToEnv() {
+    return testClassToEnv;
+  }
+
+  /**
+   * Returns the names of all indexed GuiceBerry Envs, each mapped to the
+   * names of the test classes that use it.
+   */
+  public ImmutableSetMultimap<String, String> getTestClassesByEnv() {
+    ImmutableSetMultimap.Builder<String, String> result = ImmutableSetMultimap.builder();
+    for (Map.Entry<String, String> entry : testClassToEnv.entrySet()) {
+      result.put(entry.getValue(), entry.getKey());
+    }
+    return result.build();
+  }
+
+  /**
+   * Returns the names of all GuiceBerry Envs declared by indexed test
+   * classes.
+   */
+  public Set<String> getEnvNames() {
+    return getTestClassesByEnv().keySet();
+  }
+
+  public boolean isEmpty() {
+    return testClassToEnv.isEmpty();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * A javac annotation processor that writes the {@link EnvIndex} of the test
+ * classes being compiled, i.e. the GuiceBerry Env declared by each test class
+ * annotated with {@link com.google.guiceberry.util.AnnotatedGuiceBerryEnv} or
+ * with the deprecated
+ * {@link com.google.inject.testing.guiceberry.GuiceBerryEnv}.
+ *
+ * <p>It is registered as a service in GuiceBerry's jar, so javac runs it
+ * automatically when compiling tests that have GuiceBerry on the classpath.
+ * Entries already in the index (say, from a previous incremental
+ * compilation) are kept.
+ *
+ * <p>Tests that choose their env in code (e.g. through
+ * {@code new GuiceBerryRule(Env.class)}) can't be indexed, since the
+ * arguments of a constructor call are not visible to annotation processors.
+ */
+@SupportedAnnotationTypes({
+    EnvIndexProcessor.ANNOTATED_GUICE_BERRY_ENV,
+    EnvIndexProcessor.DEPRECATED_GUICE_BERRY_ENV})
+public final class EnvIndexProcessor extends AbstractProcessor {
+
+  static final String ANNOTATED_GUICE_BERRY_ENV =
+      "com.google.guiceberry.util.AnnotatedGuiceBerryEnv";
+
+  static final String DEPRECATED_GUICE_BERRY_ENV =
+      "com.google.inject.testing.guiceberry.GuiceBerryEnv";
+
+  private final Properties index = new Properties();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element instanceof TypeElement) {
+          addToIndex((TypeElement) element, annotation);
+        }
+      }
+    }
+    if (roundEnv.processingOver() && !index.isEmpty()) {
+      writeIndex();
+    }
+    // Other processors are welcome to look at these annotations too
+    return false;
+  }
+
+  private void addToIndex(TypeElement testClass, TypeElement annotation) {
+    int gbeAnnotations = 0;
+    for (AnnotationMirror mirror : testClass.getAnnotationMirrors()) {
+      String name = mirror.getAnnotationType().asElement().toString();
+      if (name.equals(ANNOTATED_GUICE_BERRY_ENV) || name.equals(DEPRECATED_GUICE_BERRY_ENV)) {
+        gbeAnnotations++;
+      }
+    }
+    if (gbeAnnotations > 1) {
+      // Ambiguous, and rejected at runtime by the selectors
+      return;
+    }
+    for (AnnotationMirror mirror : testClass.getAnnotationMirrors()) {
+      if (!mirror.getAnnotationType().asElement().equals(annotation)) {
+        continue;
+      }
+      for (java.util.Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+          : mirror.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("value")) {
+          String testClassName =
+            processingEnv.getElementUtils().getBinaryName(testClass).toString();
+          index.setProperty(testClassName, entry.getValue().getValue().toString());
+        }
+      }
+    }
+  }
+
+  private void writeIndex() {
+    Properties merged = new Properties();
+    try {
+      FileObject existing = processingEnv.getFiler().getResource(
+          StandardLocation.CLASS_OUTPUT, "", EnvIndex.RESOURCE_NAME);
+      InputStream in = existing.openInputStream();
+      try {
+        merged.load(in);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      // There is no previous index
+    }
+    merged.putAll(index);
+    try {
+      FileObject resource = processingEnv.getFiler().createResource(
+          StandardLocation.CLASS_OUTPUT, "", EnvIndex.RESOURCE_NAME);
+      OutputStream out = resource.openOutputStream();
+      try {
+        merged.store(out, "Generated by " + EnvIndexProcessor.class.getName());
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format(
+          "Could not write the GuiceBerry env index '%s': %s",
+          EnvIndex.RESOURCE_NAME, e.getMessage()));
+    }
+  }
+}
@@ -43,6 +43,14 @@ public class GuiceBerryRule implements MethodRule {
     this.guiceBerryEnvSelector = guiceBerryEnvSelector;
   }
 
+  /**
+   * The {@link GuiceBerryEnvSelector} this rule uses, so that
+   * {@link GuiceBerrySuite} can find a test class' env before running it.
+   */
+  GuiceBerryEnvSelector getGuiceBerryEnvSelector() {
+    return guiceBerryEnvSelector;
+  }
+
   public Statement apply(final Statement base, final FrameworkMethod method, final Object target) {
     return new Statement() {
       
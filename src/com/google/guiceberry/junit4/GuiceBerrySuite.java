@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.junit4;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.guiceberry.GuiceBerry;
+import com.google.guiceberry.GuiceBerryEnvSelector;
+import com.google.guiceberry.TestDescription;
+import com.google.inject.Module;
+
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A JUnit4 {@link Suite} that runs its {@link Suite.SuiteClasses} grouped by
+ * GuiceBerry Env, and shuts each env down (see
+ * {@link GuiceBerry#shutDownEnv(Class)}) as soon as the last class that uses
+ * it is done, so that at most one env is alive at any given time:
+ *
+ * <pre>
+ * {@literal @}RunWith(GuiceBerrySuite.class)
+ * {@literal @}SuiteClasses({FooTest.class, BarTest.class, BazTest.class})
+ * public class AllTests {}
+ * </pre>
+ *
+ * <p>The env of a class is the one its {@link GuiceBerryRule} field's
+ * {@link GuiceBerryEnvSelector} selects for it, which means overrides (e.g.
+ * through {@link com.google.guiceberry.DefaultEnvSelector#override}) are
+ * honored. Envs are run in the order in which they first appear in the
+ * suite. Classes without a {@link GuiceBerryRule} are run first, in their
+ * original order.
+ *
+ * <p>Since envs are shut down eagerly, this should not be used for suites
+ * that run concurrently with other suites that use the same envs.
+ */
+public class GuiceBerrySuite extends Suite {
+
+  private static final Logger logger =
+    Logger.getLogger(GuiceBerrySuite.class.getName());
+
+  /**
+   * For each runner that is the last one of its env, the env to shut down
+   * once it is done.
+   */
+  private final Map<Runner, Class<? extends Module>> envsToShutDownAfter;
+
+  public GuiceBerrySuite(Class<?> klass, RunnerBuilder builder)
+      throws InitializationError {
+    this(klass, groupByEnv(getSuiteClasses(klass), builder));
+  }
+
+  private GuiceBerrySuite(Class<?> klass, Grouping grouping)
+      throws InitializationError {
+    super(klass, grouping.runners);
+    this.envsToShutDownAfter = grouping.envsToShutDownAfter;
+  }
+
+  @Override
+  protected void runChild(Runner runner, RunNotifier notifier) {
+    super.runChild(runner, notifier);
+    Class<? extends Module> gbeClass = envsToShutDownAfter.get(runner);
+    if (gbeClass == null) {
+      return;
+    }
+    try {
+      GuiceBerry.INSTANCE.shutDownEnv(gbeClass);
+    } catch (RuntimeException e) {
+      notifier.fireTestFailure(new Failure(runner.getDescription(), e));
+    }
+  }
+
+  private static Class<?>[] getSuiteClasses(Class<?> klass)
+      throws InitializationError {
+    SuiteClasses annotation = klass.getAnnotation(SuiteClasses.class);
+    if (annotation == null) {
+      throw new InitializationError(String.format(
+          "Class '%s' must have a SuiteClasses annotation.", klass.getName()));
+    }
+    return annotation.value();
+  }
+
+  private static final class Grouping {
+    private final List<Runner> runners = Lists.newArrayList();
+    private final Map<Runner, Class<? extends Module>> envsToShutDownAfter =
+      Maps.newHashMap();
+  }
+
+  private static Grouping groupByEnv(Class<?>[] suiteClasses,
+      RunnerBuilder builder) throws InitializationError {
+    List<Class<?>> withoutEnv = Lists.newArrayList();
+    Map<Class<? extends Module>, List<Class<?>>> byEnv =
+      Maps.newLinkedHashMap();
+    for (Class<?> testClass : suiteClasses) {
+      Class<? extends Module> gbeClass = findEnv(testClass);
+      if (gbeClass == null) {
+        withoutEnv.add(testClass);
+        continue;
+      }
+      List<Class<?>> classes = byEnv.get(gbeClass);
+      if (classes == null) {
+        classes = Lists.newArrayList();
+        byEnv.put(gbeClass, classes);
+      }
+      classes.add(testClass);
+    }
+
+    Grouping result = new Grouping();
+    for (Class<?> testClass : withoutEnv) {
+      addRunner(result, builder, testClass);
+    }
+    for (Map.Entry<Class<? extends Module>, List<Class<?>>> entry
+        : byEnv.entrySet()) {
+      Runner last = null;
+      for (Class<?> testClass : entry.getValue()) {
+        last = addRunner(result, builder, testClass);
+      }
+      if (last != null) {
+        result.envsToShutDownAfter.put(last, entry.getKey());
+      }
+    }
+    return result;
+  }
+
+  private static Runner addRunner(Grouping grouping, RunnerBuilder builder,
+      Class<?> testClass) throws InitializationError {
+    Runner runner;
+    try {
+      runner = builder.runnerForClass(testClass);
+    } catch (Throwable e) {
+      throw new InitializationError(e);
+    }
+    if (runner != null) {
+      grouping.runners.add(runner);
+    }
+    return runner;
+  }
+
+  /**
+   * Returns the env the {@link GuiceBerryRule} of {@code testClass} would
+   * use, or null if there's no such rule or the class can't be instantiated
+   * (in which case JUnit itself will report the problem when running it).
+   */
+  private static Class<? extends Module> findEnv(Class<?> testClass) {
+    Object testCase;
+    try {
+      testCase = testClass.getConstructor().newInstance();
+    } catch (Exception e) {
+      logger.log(Level.FINE, String.format(
+          "Could not instantiate '%s' to find its GuiceBerry Env.",
+          testClass.getName()), e);
+      return null;
+    }
+    for (Class<?> c = testClass; c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!GuiceBerryRule.class.isAssignableFrom(field.getType())) {
+          continue;
+        }
+        GuiceBerryRule rule;
+        try {
+          field.setAccessible(true);
+          rule = (GuiceBerryRule) field.get(testCase);
+        } catch (IllegalAccessException e) {
+          throw new RuntimeException(e);
+        }
+        if (rule == null) {
+          continue;
+        }
+        GuiceBerryEnvSelector selector = rule.getGuiceBerryEnvSelector();
+        return selector.guiceBerryEnvToUse(
+            new TestDescription(testCase, testClass.getName()));
+      }
+    }
+    return null;
+  }
+}
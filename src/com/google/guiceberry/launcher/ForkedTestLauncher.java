@@ -0,0 +1,390 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import static com.google.guiceberry.launcher.ForkedTestProtocol.DONE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.EXIT;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.FAILURE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.NO_ENV;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.PREFIX;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.READY;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.RUN;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.unescape;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.guiceberry.index.EnvIndex;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs JUnit test classes in {@code N} forked {@link ForkedTestWorker} JVMs,
+ * and merges their results into a single report.
+ *
+ * <p>Test classes are partitioned among the workers by their GuiceBerry Env,
+ * as recorded in the {@link EnvIndex}, so that each env gets built in as few
+ * workers as possible; workers that run out of work steal it from the others
+ * (see {@link ForkedTestScheduler}). Workers inherit this JVM's class path and
+ * its {@code GuiceBerry*} system properties (e.g. env overrides).
+ *
+ * <p>Usage, which is what the {@code test.forked} Ant target does:
+ *
+ * <pre>
+ * java com.google.guiceberry.launcher.ForkedTestLauncher \
+ *     [-forks N] [-report file] testClassName...
+ * </pre>
+ *
+ * <p>{@code N} defaults to the number of available processors. The exit
+ * status is 0 if and only if all tests passed.
+ */
+public final class ForkedTestLauncher {
+
+  private final int workerCount;
+  private final List<String> testClassNames;
+  private final Map<String, String> testClassToEnv;
+
+  /**
+   * The results of each test class, by its name. Guarded by itself.
+   */
+  private final Map<String, TestClassResult> results = Maps.newHashMap();
+
+  /**
+   * @param workerCount how many workers to fork, or 0 for as many as there
+   *     are available processors
+   */
+  public ForkedTestLauncher(int workerCount, List<String> testClassNames) {
+    this(workerCount, testClassNames,
+        EnvIndex.load(ForkedTestLauncher.class.getClassLoader()).getTestClassToEnv());
+  }
+
+  ForkedTestLauncher(int workerCount, List<String> testClassNames,
+      Map<String, String> testClassToEnv) {
+    if (workerCount < 0) {
+      throw new IllegalArgumentException(String.format(
+          "The number of workers can't be negative (%d).", workerCount));
+    }
+    if (workerCount == 0) {
+      workerCount = Runtime.getRuntime().availableProcessors();
+    }
+    this.workerCount = Math.max(1, Math.min(workerCount, testClassNames.size()));
+    this.testClassNames = ImmutableList.copyOf(testClassNames);
+    this.testClassToEnv = testClassToEnv;
+  }
+
+  public static void main(String[] args) throws Exception {
+    int workerCount = 0;
+    File report = null;
+    List<String> testClassNames = Lists.newArrayList();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-forks")) {
+        workerCount = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("-report")) {
+        report = new File(args[++i]);
+      } else {
+        testClassNames.add(args[i]);
+      }
+    }
+    boolean passed = new ForkedTestLauncher(workerCount, testClassNames).run(report);
+    System.exit(passed ? 0 : 1);
+  }
+
+  /**
+   * Runs all the tests, writing the merged report to {@code report} (unless
+   * it is {@code null}) and a summary to {@link System#out}. Returns true if
+   * all tests passed.
+   */
+  public boolean run(File report) throws IOException, InterruptedException {
+    if (testClassNames.isEmpty()) {
+      return true;
+    }
+    long start = System.currentTimeMillis();
+    ForkedTestScheduler scheduler =
+      new ForkedTestScheduler(testClassNames, testClassToEnv, workerCount);
+    List<Thread> threads = Lists.newArrayList();
+    for (int i = 0; i < workerCount; i++) {
+      Thread thread = new Thread(new WorkerConnection(i, scheduler),
+          "GuiceBerry forked test worker " + i);
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.currentTimeMillis() - start;
+
+    if (report != null) {
+      File parent = report.getAbsoluteFile().getParentFile();
+      if (parent != null) {
+        parent.mkdirs();
+      }
+      Writer writer = new OutputStreamWriter(new FileOutputStream(report), "UTF-8");
+      try {
+        return writeReport(new PrintWriter(writer), elapsed);
+      } finally {
+        writer.close();
+      }
+    }
+    return writeReport(null, elapsed);
+  }
+
+  private boolean writeReport(PrintWriter report, long elapsed) {
+    int run = 0;
+    int failed = 0;
+    int ignored = 0;
+    for (String testClassName : testClassNames) {
+      TestClassResult result;
+      synchronized (results) {
+        result = results.get(testClassName);
+      }
+      if (result == null) {
+        result = TestClassResult.notRun(testClassName);
+      }
+      run += result.runCount;
+      failed += result.failureCount;
+      ignored += result.ignoreCount;
+      if (report != null) {
+        result.writeTo(report);
+      }
+    }
+    String summary = String.format(
+        "Test classes: %d, Tests run: %d, Failures: %d, Ignored: %d, "
+        + "Time elapsed: %.3f sec, Workers: %d",
+        testClassNames.size(), run, failed, ignored, elapsed / 1000.0, workerCount);
+    if (report != null) {
+      report.println(summary);
+      report.flush();
+    }
+    System.out.println(summary);
+    return failed == 0;
+  }
+
+  /**
+   * Talks to one forked {@link ForkedTestWorker}, forking a new one should it
+   * die.
+   */
+  private final class WorkerConnection implements Runnable {
+
+    private final int worker;
+    private final ForkedTestScheduler scheduler;
+
+    WorkerConnection(int worker, ForkedTestScheduler scheduler) {
+      this.worker = worker;
+      this.scheduler = scheduler;
+    }
+
+    public void run() {
+      ForkedTestScheduler.Assignment assignment = scheduler.next(worker);
+      while (assignment != null) {
+        Process process;
+        try {
+          process = fork();
+        } catch (IOException e) {
+          record(TestClassResult.crashed(assignment.testClassName, worker, e.toString()));
+          assignment = scheduler.next(worker);
+          continue;
+        }
+        assignment = talkTo(process, assignment);
+      }
+    }
+
+    /**
+     * Runs {@code assignment}, and whatever else the scheduler has, in the
+     * {@code process} worker. Returns the assignment it was running if the
+     * worker died, or {@code null} when done.
+     */
+    private ForkedTestScheduler.Assignment talkTo(Process process,
+        ForkedTestScheduler.Assignment assignment) {
+      PrintWriter commands = null;
+      try {
+        BufferedReader replies = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), "UTF-8"));
+        commands = new PrintWriter(
+            new OutputStreamWriter(process.getOutputStream(), "UTF-8"), true);
+        awaitReply(replies, READY);
+        while (assignment != null) {
+          commands.println(RUN + " " + assignment.testClassName + " "
+              + ((assignment.envName == null) ? NO_ENV : assignment.envName));
+          record(readResult(replies, assignment.testClassName));
+          assignment = scheduler.next(worker);
+        }
+        commands.println(EXIT);
+        process.waitFor();
+        return null;
+      } catch (IOException e) {
+        record(TestClassResult.crashed(assignment.testClassName, worker, e.toString()));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        record(TestClassResult.crashed(assignment.testClassName, worker, e.toString()));
+      } finally {
+        if (commands != null) {
+          commands.close();
+        }
+        process.destroy();
+      }
+      return scheduler.next(worker);
+    }
+
+    private Process fork() throws IOException {
+      List<String> command = Lists.newArrayList();
+      command.add(System.getProperty("java.home") + File.separator + "bin"
+          + File.separator + "java");
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      for (String name : System.getProperties().stringPropertyNames()) {
+        if (name.startsWith("GuiceBerry")) {
+          command.add("-D" + name + "=" + System.getProperty(name));
+        }
+      }
+      command.add(ForkedTestWorker.class.getName());
+      Process result = new ProcessBuilder(command).start();
+      pump(result.getErrorStream());
+      return result;
+    }
+
+    /**
+     * Copies the worker's stderr (which is also where its tests' stdout goes)
+     * to this JVM's.
+     */
+    private void pump(final InputStream in) {
+      Thread thread = new Thread(new Runnable() {
+        public void run() {
+          try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+            String line;
+            while ((line = reader.readLine()) != null) {
+              System.err.println("[worker " + worker + "] " + line);
+            }
+          } catch (IOException ignored) {
+            // The worker is gone
+          }
+        }
+      }, "GuiceBerry forked test worker " + worker + " stderr");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private String awaitReply(BufferedReader replies, String command) throws IOException {
+      String line;
+      while ((line = replies.readLine()) != null) {
+        if (!line.startsWith(PREFIX)) {
+          System.err.println("[worker " + worker + "] " + line);
+          continue;
+        }
+        String reply = line.substring(PREFIX.length());
+        if (!reply.startsWith(command)) {
+          throw new IOException(String.format(
+              "Expected '%s' from worker %d, got '%s'.", command, worker, reply));
+        }
+        return reply;
+      }
+      throw new IOException(String.format(
+          "Worker %d died while we waited for it to send '%s'.", worker, command));
+    }
+
+    private TestClassResult readResult(BufferedReader replies, String testClassName)
+        throws IOException {
+      TestClassResult result = new TestClassResult(testClassName, worker);
+      while (true) {
+        String reply = awaitReply(replies, "");
+        String[] fields = reply.split(" ", 3);
+        if (fields[0].equals(FAILURE) && (fields.length == 3)) {
+          String[] failure = fields[2].split("\t", 2);
+          result.failures.add(new String[] {
+              unescape(failure[0]),
+              (failure.length > 1) ? unescape(failure[1]) : ""});
+        } else if (fields[0].equals(DONE) && fields[1].equals(testClassName)) {
+          String[] counts = fields[2].split(" ");
+          result.runCount = Integer.parseInt(counts[0]);
+          result.failureCount = Integer.parseInt(counts[1]);
+          result.ignoreCount = Integer.parseInt(counts[2]);
+          result.millis = Long.parseLong(counts[3]);
+          return result;
+        } else {
+          throw new IOException(String.format(
+              "Unexpected reply '%s' from worker %d.", reply, worker));
+        }
+      }
+    }
+
+    private void record(TestClassResult result) {
+      synchronized (results) {
+        results.put(result.testClassName, result);
+      }
+      System.out.println(String.format("[worker %d] %s: %d run, %d failed (%d ms)",
+          worker, result.testClassName, result.runCount, result.failureCount, result.millis));
+    }
+  }
+
+  /**
+   * The outcome of running one test class.
+   */
+  private static final class TestClassResult {
+    final String testClassName;
+    final int worker;
+    int runCount;
+    int failureCount;
+    int ignoreCount;
+    long millis;
+    /**
+     * The test header and the stack trace of each failure.
+     */
+    final List<String[]> failures = Lists.newArrayList();
+
+    TestClassResult(String testClassName, int worker) {
+      this.testClassName = testClassName;
+      this.worker = worker;
+    }
+
+    static TestClassResult crashed(String testClassName, int worker, String why) {
+      TestClassResult result = new TestClassResult(testClassName, worker);
+      result.runCount = 1;
+      result.failureCount = 1;
+      result.failures.add(new String[] {testClassName,
+          String.format("The worker JVM died while running this class: %s", why)});
+      return result;
+    }
+
+    static TestClassResult notRun(String testClassName) {
+      TestClassResult result = crashed(testClassName, -1, "never run");
+      result.failures.set(0, new String[] {testClassName, "This class was never run."});
+      return result;
+    }
+
+    void writeTo(PrintWriter report) {
+      report.println("Testsuite: " + testClassName);
+      report.println(String.format(
+          "Tests run: %d, Failures: %d, Ignored: %d, Time elapsed: %.3f sec, Worker: %d",
+          runCount, failureCount, ignoreCount, millis / 1000.0, worker));
+      for (String[] failure : failures) {
+        report.println();
+        report.println("Testcase: " + failure[0] + " FAILED");
+        report.println(failure[1]);
+      }
+      report.println();
+    }
+  }
+}
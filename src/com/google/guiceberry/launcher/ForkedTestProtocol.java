@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+/**
+ * The line-based protocol {@link ForkedTestLauncher} and its
+ * {@link ForkedTestWorker}s speak over the workers' stdin and stdout. Every
+ * line a worker sends starts with {@link #PREFIX}, so that anything else a
+ * JVM may print there is told apart (and merely echoed).
+ *
+ * <ul>
+ *   <li>worker: {@code READY} once it is up;
+ *   <li>launcher: {@code RUN <test class> <env name, or ->} or {@code EXIT};
+ *   <li>worker: zero or more
+ *     {@code FAILURE <test class> <test>\t<stack trace>}, then
+ *     {@code DONE <test class> <run> <failed> <ignored> <millis>}.
+ * </ul>
+ *
+ * <p>Free-form fields are {@link #escape}d so they fit in a single line.
+ */
+final class ForkedTestProtocol {
+
+  static final String PREFIX = "@@GuiceBerry ";
+
+  static final String READY = "READY";
+  static final String RUN = "RUN";
+  static final String EXIT = "EXIT";
+  static final String FAILURE = "FAILURE";
+  static final String DONE = "DONE";
+
+  /**
+   * Stands for "no known env" in a {@link #RUN} command.
+   */
+  static final String NO_ENV = "-";
+
+  private ForkedTestProtocol() {}
+
+  static String escape(String text) {
+    StringBuilder result = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\': result.append("\\\\"); break;
+        case '\n': result.append("\\n"); break;
+        case '\r': result.append("\\r"); break;
+        case '\t': result.append("\\t"); break;
+        default: result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  static String unescape(String text) {
+    StringBuilder result = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if ((c != '\\') || (i == text.length() - 1)) {
+        result.append(c);
+        continue;
+      }
+      char next = text.charAt(++i);
+      switch (next) {
+        case 'n': result.append('\n'); break;
+        case 'r': result.append('\r'); break;
+        case 't': result.append('\t'); break;
+        default: result.append(next);
+      }
+    }
+    return result.toString();
+  }
+}
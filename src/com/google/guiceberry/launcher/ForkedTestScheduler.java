@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which test class each {@link ForkedTestWorker} runs next.
+ *
+ * <p>Test classes are grouped by their GuiceBerry Env (classes whose env is
+ * not known make up groups of their own), and whole groups are assigned up
+ * front to the workers, biggest groups first, each to the least loaded worker,
+ * so that every env is built in as few workers as possible. A worker that runs
+ * out of work steals from the one with the most work left: a whole group that
+ * worker has not started yet if there is one, or else half of the remaining
+ * classes of its current group.
+ */
+final class ForkedTestScheduler {
+
+  /**
+   * A test class to run, and the name of its env (or {@code null}).
+   */
+  static final class Assignment {
+    final String testClassName;
+    final String envName;
+
+    Assignment(String testClassName, String envName) {
+      this.testClassName = testClassName;
+      this.envName = envName;
+    }
+
+    @Override
+    public String toString() {
+      return testClassName + " (" + envName + ")";
+    }
+  }
+
+  private static final class Group {
+    final String envName;
+    final LinkedList<String> testClassNames;
+
+    Group(String envName, List<String> testClassNames) {
+      this.envName = envName;
+      this.testClassNames = Lists.newLinkedList(testClassNames);
+    }
+  }
+
+  private final List<LinkedList<Group>> queues = Lists.newArrayList();
+
+  /**
+   * @param testClassToEnv the env name of each test class whose env is
+   *     known; see {@link com.google.guiceberry.index.EnvIndex}.
+   */
+  ForkedTestScheduler(List<String> testClassNames, Map<String, String> testClassToEnv,
+      int workerCount) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException(String.format(
+          "There must be at least one worker, not %d.", workerCount));
+    }
+    Map<String, List<String>> byEnv = Maps.newLinkedHashMap();
+    List<Group> groups = Lists.newArrayList();
+    for (String testClassName : testClassNames) {
+      String envName = testClassToEnv.get(testClassName);
+      if (envName == null) {
+        groups.add(new Group(null, Collections.singletonList(testClassName)));
+        continue;
+      }
+      List<String> sameEnv = byEnv.get(envName);
+      if (sameEnv == null) {
+        sameEnv = Lists.newArrayList();
+        byEnv.put(envName, sameEnv);
+      }
+      sameEnv.add(testClassName);
+    }
+    for (Map.Entry<String, List<String>> entry : byEnv.entrySet()) {
+      groups.add(new Group(entry.getKey(), entry.getValue()));
+    }
+    // A stable sort, so that groups of the same size keep the suite's order
+    Collections.sort(groups, new Comparator<Group>() {
+      public int compare(Group a, Group b) {
+        return b.testClassNames.size() - a.testClassNames.size();
+      }
+    });
+
+    for (int i = 0; i < workerCount; i++) {
+      queues.add(new LinkedList<Group>());
+    }
+    for (Group group : groups) {
+      leastLoaded().add(group);
+    }
+  }
+
+  private LinkedList<Group> leastLoaded() {
+    LinkedList<Group> result = null;
+    int resultSize = Integer.MAX_VALUE;
+    for (LinkedList<Group> queue : queues) {
+      int size = size(queue);
+      if (size < resultSize) {
+        result = queue;
+        resultSize = size;
+      }
+    }
+    return result;
+  }
+
+  private static int size(List<Group> queue) {
+    int result = 0;
+    for (Group group : queue) {
+      result += group.testClassNames.size();
+    }
+    return result;
+  }
+
+  /**
+   * Returns what the given {@code worker} should run next, or {@code null} if
+   * there's nothing left to run.
+   */
+  synchronized Assignment next(int worker) {
+    LinkedList<Group> queue = queues.get(worker);
+    if (queue.isEmpty() && !steal(queue)) {
+      return null;
+    }
+    Group group = queue.getFirst();
+    String testClassName = group.testClassNames.removeFirst();
+    if (group.testClassNames.isEmpty()) {
+      queue.removeFirst();
+    }
+    return new Assignment(testClassName, group.envName);
+  }
+
+  /**
+   * Moves work from the worker with the most work left into {@code thief}.
+   * Returns false if there was no work left to steal.
+   */
+  private boolean steal(LinkedList<Group> thief) {
+    LinkedList<Group> victim = null;
+    int victimSize = 0;
+    for (LinkedList<Group> queue : queues) {
+      int size = size(queue);
+      if (size > victimSize) {
+        victim = queue;
+        victimSize = size;
+      }
+    }
+    if (victim == null) {
+      return false;
+    }
+    if (victim.size() > 1) {
+      thief.add(victim.removeLast());
+      return true;
+    }
+    Group group = victim.getFirst();
+    int toSteal = Math.max(1, group.testClassNames.size() / 2);
+    List<String> stolen = Lists.newArrayList();
+    for (int i = 0; i < toSteal; i++) {
+      stolen.add(0, group.testClassNames.removeLast());
+    }
+    if (group.testClassNames.isEmpty()) {
+      victim.removeFirst();
+    }
+    thief.add(new Group(group.envName, stolen));
+    return true;
+  }
+}
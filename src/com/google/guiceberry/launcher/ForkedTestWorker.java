@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import static com.google.guiceberry.launcher.ForkedTestProtocol.DONE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.EXIT;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.FAILURE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.NO_ENV;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.PREFIX;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.READY;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.RUN;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.escape;
+
+import com.google.guiceberry.DefaultEnvSelector;
+import com.google.guiceberry.GuiceBerry;
+
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The process {@link ForkedTestLauncher} forks to run tests: it runs, with
+ * JUnit, each test class the launcher sends it and reports the results back
+ * (see {@link ForkedTestProtocol}).
+ *
+ * <p>Whenever it moves on to a test class of a different GuiceBerry Env, the
+ * env of the previous one is shut down (see {@link GuiceBerry#shutDownEnv}),
+ * so that a worker holds on to one env at a time. The {@link GuiceBerryDaemon}
+ * uses it too, but keeps its envs alive instead.
+ */
+public final class ForkedTestWorker {
+
+  private static final Logger logger = Logger.getLogger(ForkedTestWorker.class.getName());
+
+  private final BufferedReader in;
+  private final PrintStream out;
+  private final boolean shutDownEnvs;
+
+  private String currentEnvName;
+
+  ForkedTestWorker(BufferedReader in, PrintStream out, boolean shutDownEnvs) {
+    this.in = in;
+    this.out = out;
+    this.shutDownEnvs = shutDownEnvs;
+  }
+
+  public static void main(String[] args) throws IOException {
+    // The tests' own output must not get mixed with the protocol's
+    PrintStream protocolOut = System.out;
+    System.setOut(System.err);
+    new ForkedTestWorker(
+        new BufferedReader(new InputStreamReader(System.in, "UTF-8")),
+        protocolOut, true).run();
+    System.exit(0);
+  }
+
+  void run() throws IOException {
+    send(READY);
+    String line;
+    while (((line = in.readLine()) != null) && !line.equals(EXIT)) {
+      String[] command = line.split(" ");
+      if ((command.length != 3) || !command[0].equals(RUN)) {
+        throw new IllegalStateException(String.format(
+            "Unexpected command '%s'.", line));
+      }
+      runTestClass(command[1], NO_ENV.equals(command[2]) ? null : command[2]);
+    }
+    shutDownCurrentEnv();
+  }
+
+  private void runTestClass(String testClassName, String envName) {
+    if ((envName != null) && !envName.equals(currentEnvName)) {
+      shutDownCurrentEnv();
+      currentEnvName = envName;
+    }
+    long start = System.currentTimeMillis();
+    Class<?> testClass;
+    try {
+      testClass = Class.forName(testClassName);
+    } catch (Throwable e) {
+      send(FAILURE, testClassName, escape(testClassName) + "\t" + escape(stackTrace(e)));
+      send(DONE, testClassName, "1", "1", "0",
+          Long.toString(System.currentTimeMillis() - start));
+      return;
+    }
+    Result result = new JUnitCore().run(testClass);
+    for (Failure failure : result.getFailures()) {
+      send(FAILURE, testClassName,
+          escape(failure.getTestHeader()) + "\t" + escape(failure.getTrace()));
+    }
+    send(DONE, testClassName,
+        Integer.toString(result.getRunCount()),
+        Integer.toString(result.getFailureCount()),
+        Integer.toString(result.getIgnoreCount()),
+        Long.toString(result.getRunTime()));
+  }
+
+  private void shutDownCurrentEnv() {
+    if ((currentEnvName == null) || !shutDownEnvs) {
+      return;
+    }
+    try {
+      GuiceBerry.INSTANCE.shutDownEnv(
+          DefaultEnvSelector.of(currentEnvName).guiceBerryEnvToUse(null));
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, String.format(
+          "Error while shutting down the GuiceBerry Env '%s'.", currentEnvName), e);
+    }
+    currentEnvName = null;
+  }
+
+  private void send(String... fields) {
+    StringBuilder line = new StringBuilder(PREFIX);
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) {
+        line.append(' ');
+      }
+      line.append(fields[i]);
+    }
+    out.println(line);
+    out.flush();
+  }
+
+  private static String stackTrace(Throwable e) {
+    StringWriter result = new StringWriter();
+    e.printStackTrace(new PrintWriter(result));
+    return result.toString();
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import com.google.common.collect.Lists;
+import com.google.guiceberry.GuiceBerry;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A long-lived process that runs the test classes {@link GuiceBerryDaemonClient}s
+ * send it, keeping the GuiceBerry Envs (and whatever servers their
+ * {@link com.google.guiceberry.GuiceBerryEnvMain}s started) alive between
+ * runs, so that repeated local test runs don't pay for JVM start up, class
+ * loading and env creation over and over.
+ *
+ * <p>The daemon only listens on the loopback interface, on the port given as
+ * its single argument (or {@link #DEFAULT_PORT}), and runs one client's tests
+ * at a time, speaking the {@link ForkedTestProtocol} with it.
+ *
+ * <p>All classes in the class path (GuiceBerry's own included) are loaded by
+ * a class loader of their own, a "generation". Before each run, the class
+ * path is checked for class files (or jars) that changed on disk since the
+ * generation was created: if any did, all envs of the current generation are
+ * shut down (see {@link GuiceBerry#shutDownAllEnvs()}), and a new generation
+ * is created, so that neither stale envs nor stale tests are ever used.
+ */
+public final class GuiceBerryDaemon {
+
+  public static final int DEFAULT_PORT = 7117;
+
+  /**
+   * What a client sends first: either it wants tests run (followed by the
+   * {@link ForkedTestProtocol} commands), or the daemon to stop.
+   */
+  static final String TESTS = "TESTS";
+  static final String STOP = "STOP";
+
+  private static final Logger logger = Logger.getLogger(GuiceBerryDaemon.class.getName());
+
+  private final ServerSocket serverSocket;
+  private final List<File> classPath = Lists.newArrayList();
+
+  private Generation generation;
+  private int generationCount = 0;
+
+  public GuiceBerryDaemon(int port) throws IOException {
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName(null));
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      if (entry.length() > 0) {
+        classPath.add(new File(entry).getAbsoluteFile());
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    GuiceBerryDaemon daemon = new GuiceBerryDaemon(port);
+    logger.info(String.format("GuiceBerry daemon listening on port %d.", daemon.getPort()));
+    daemon.serve();
+    System.exit(0);
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * How many generations were created so far.
+   */
+  synchronized int getGenerationCount() {
+    return generationCount;
+  }
+
+  /**
+   * Serves clients until one of them asks the daemon to stop.
+   */
+  public void serve() throws IOException {
+    try {
+      while (true) {
+        Socket socket = serverSocket.accept();
+        try {
+          if (!serve(socket)) {
+            return;
+          }
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Error while serving a client.", e);
+        } finally {
+          socket.close();
+        }
+      }
+    } finally {
+      serverSocket.close();
+      retireGeneration();
+    }
+  }
+
+  /**
+   * Returns false if the client asked the daemon to stop.
+   */
+  private boolean serve(Socket socket) throws IOException {
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), "UTF-8"));
+    PrintStream out = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+    String request = in.readLine();
+    if (STOP.equals(request)) {
+      return false;
+    }
+    if (!TESTS.equals(request)) {
+      throw new IOException(String.format("Unexpected request '%s'.", request));
+    }
+    currentGeneration().run(in, out);
+    return true;
+  }
+
+  private synchronized Generation currentGeneration() {
+    long fingerprint = fingerprint();
+    if ((generation != null) && (generation.fingerprint != fingerprint)) {
+      logger.info("Classes changed on disk; creating a new generation.");
+      retireGeneration();
+    }
+    if (generation == null) {
+      generation = new Generation(fingerprint);
+      generationCount++;
+    }
+    return generation;
+  }
+
+  private synchronized void retireGeneration() {
+    if (generation == null) {
+      return;
+    }
+    try {
+      generation.shutDownAllEnvs();
+    } catch (Exception e) {
+      logger.log(Level.WARNING, "Error while shutting down the envs of a generation.", e);
+    }
+    generation = null;
+  }
+
+  /**
+   * Returns a value that changes whenever a class file or jar in the class
+   * path is added, removed or modified.
+   */
+  private long fingerprint() {
+    long result = 17;
+    for (File entry : classPath) {
+      result = 31 * result + fingerprint(entry);
+    }
+    return result;
+  }
+
+  private static long fingerprint(File file) {
+    if (!file.isDirectory()) {
+      return file.lastModified();
+    }
+    long result = 0;
+    File[] children = file.listFiles();
+    if (children == null) {
+      return result;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        result = 31 * result + fingerprint(child);
+      } else if (child.getName().endsWith(".class")) {
+        result = 31 * result + child.lastModified() + child.getName().hashCode();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * A class loader holding fresh copies of all the classes in the class path,
+   * and thus a GuiceBerry universe (and envs) of its own.
+   */
+  private final class Generation {
+
+    private final long fingerprint;
+    private final ClassLoader classLoader;
+
+    Generation(long fingerprint) {
+      this.fingerprint = fingerprint;
+      URL[] urls = new URL[classPath.size()];
+      for (int i = 0; i < urls.length; i++) {
+        try {
+          urls[i] = classPath.get(i).toURI().toURL();
+        } catch (MalformedURLException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      // The parent is the extension class loader, so that nothing in the
+      // class path is shared with the daemon itself
+      this.classLoader =
+        new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    void run(BufferedReader in, PrintStream out) throws IOException {
+      Thread thread = Thread.currentThread();
+      ClassLoader previous = thread.getContextClassLoader();
+      thread.setContextClassLoader(classLoader);
+      try {
+        Class<?> workerClass = classLoader.loadClass(ForkedTestWorker.class.getName());
+        Constructor<?> constructor = workerClass.getDeclaredConstructor(
+            BufferedReader.class, PrintStream.class, boolean.class);
+        constructor.setAccessible(true);
+        Object worker = constructor.newInstance(in, out, false);
+        Method run = workerClass.getDeclaredMethod("run");
+        run.setAccessible(true);
+        run.invoke(worker);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new RuntimeException(e.getCause());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      } finally {
+        thread.setContextClassLoader(previous);
+      }
+    }
+
+    void shutDownAllEnvs() throws Exception {
+      Class<?> guiceBerryClass = classLoader.loadClass(GuiceBerry.class.getName());
+      Object guiceBerry = guiceBerryClass.getField("INSTANCE").get(null);
+      guiceBerryClass.getMethod("shutDownAllEnvs").invoke(guiceBerry);
+    }
+  }
+}
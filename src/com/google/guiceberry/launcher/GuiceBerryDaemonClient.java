@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import static com.google.guiceberry.launcher.ForkedTestProtocol.DONE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.EXIT;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.FAILURE;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.NO_ENV;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.PREFIX;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.RUN;
+import static com.google.guiceberry.launcher.ForkedTestProtocol.unescape;
+
+import com.google.common.collect.Lists;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * The thin client of a {@link GuiceBerryDaemon}: sends it the test classes to
+ * run, and prints their results as they stream back.
+ *
+ * <pre>
+ * java com.google.guiceberry.launcher.GuiceBerryDaemonClient \
+ *     [-port N] (-stop | testClassName...)
+ * </pre>
+ *
+ * <p>The exit status is 0 if and only if all tests passed.
+ */
+public final class GuiceBerryDaemonClient {
+
+  private GuiceBerryDaemonClient() {}
+
+  public static void main(String[] args) throws IOException {
+    int port = GuiceBerryDaemon.DEFAULT_PORT;
+    boolean stop = false;
+    List<String> testClassNames = Lists.newArrayList();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-port")) {
+        port = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("-stop")) {
+        stop = true;
+      } else {
+        testClassNames.add(args[i]);
+      }
+    }
+    if (stop) {
+      stop(port);
+      System.exit(0);
+    }
+    int failures = run(port, testClassNames, System.out);
+    System.exit((failures == 0) ? 0 : 1);
+  }
+
+  /**
+   * Asks the daemon listening on {@code port} to stop.
+   */
+  public static void stop(int port) throws IOException {
+    Socket socket = new Socket(InetAddress.getByName(null), port);
+    try {
+      PrintWriter commands = new PrintWriter(
+          new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+      commands.println(GuiceBerryDaemon.STOP);
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Has the daemon listening on {@code port} run the given test classes,
+   * printing their results to {@code out}, and returns how many tests failed.
+   */
+  public static int run(int port, List<String> testClassNames, PrintStream out)
+      throws IOException {
+    Socket socket = new Socket(InetAddress.getByName(null), port);
+    try {
+      PrintWriter commands = new PrintWriter(
+          new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+      commands.println(GuiceBerryDaemon.TESTS);
+      for (String testClassName : testClassNames) {
+        commands.println(RUN + " " + testClassName + " " + NO_ENV);
+      }
+      commands.println(EXIT);
+
+      BufferedReader replies = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), "UTF-8"));
+      int failures = 0;
+      int done = 0;
+      String line;
+      while ((done < testClassNames.size()) && ((line = replies.readLine()) != null)) {
+        if (!line.startsWith(PREFIX)) {
+          continue;
+        }
+        String[] fields = line.substring(PREFIX.length()).split(" ", 3);
+        if (fields[0].equals(FAILURE) && (fields.length == 3)) {
+          String[] failure = fields[2].split("\t", 2);
+          out.println("FAILED: " + unescape(failure[0]));
+          if (failure.length > 1) {
+            out.println(unescape(failure[1]));
+          }
+        } else if (fields[0].equals(DONE) && (fields.length == 3)) {
+          String[] counts = fields[2].split(" ");
+          failures += Integer.parseInt(counts[1]);
+          done++;
+          out.println(String.format("%s: %s run, %s failed, %s ignored (%s ms)",
+              fields[1], counts[0], counts[1], counts[2], counts[3]));
+        }
+      }
+      if (done < testClassNames.size()) {
+        throw new IOException(String.format(
+            "The daemon hung up after running %d of %d test classes.",
+            done, testClassNames.size()));
+      }
+      return failures;
+    } finally {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.testng;
+
+import com.google.inject.Module;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotate a TestNG test class with this to have the
+ * {@link TestNgGuiceBerryListener} set up each of its test methods with the
+ * given GuiceBerry Env, instead of calling {@link TestNgGuiceBerry#setUp} by
+ * hand. The env is selected through a
+ * {@link com.google.guiceberry.DefaultEnvSelector}, so its overrides are
+ * honored.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface TestNgGuiceBerryEnv {
+  Class<? extends Module> value();
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.testng;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.guiceberry.DefaultEnvSelector;
+import com.google.guiceberry.GuiceBerry;
+import com.google.guiceberry.GuiceBerry.GuiceBerryWrapper;
+import com.google.guiceberry.TestDescription;
+import com.google.inject.Module;
+
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A TestNG listener that installs {@link GuiceBerry} on every test method of
+ * classes annotated with {@link TestNgGuiceBerryEnv}, so they need not call
+ * {@link TestNgGuiceBerry#setUp} from their own {@code @BeforeMethod}s. Register
+ * it like any other TestNG listener, e.g. with
+ * {@code @Listeners(TestNgGuiceBerryListener.class)} or in {@code testng.xml}.
+ *
+ * <p>Since it wraps the test method itself (as an {@link IHookable}), it works
+ * under all of TestNG's {@code parallel} modes: each method is set up and torn
+ * down on the thread that runs it. Note, though, that with
+ * {@code parallel="methods"} the methods of a class share the same instance,
+ * and thus its injected fields, so classes whose tests are not stateless should
+ * rather be run with {@code parallel="classes"} or {@code parallel="instances"}.
+ * Also note that {@code @BeforeMethod}s run before the members are injected.
+ *
+ * <p>As a {@link IMethodInterceptor}, it also orders the test methods so that
+ * those that use the same env run next to each other (envs in the order they
+ * first appear), which makes it likely that a worker thread runs many tests of
+ * the env it has just used. TestNG offers no way to pin tests to threads, so
+ * this is as close to env affinity as a listener can get.
+ *
+ * <p>The time it took to set up and to tear down each test is set on its
+ * {@link ITestResult} (see {@link #SET_UP_NANOS_ATTRIBUTE} and
+ * {@link #TEAR_DOWN_NANOS_ATTRIBUTE}), so that reporters can use it, and is
+ * logged.
+ */
+public class TestNgGuiceBerryListener implements IHookable, IMethodInterceptor {
+
+  /**
+   * The {@link ITestResult} attribute holding how many nanoseconds it took
+   * to set up the test with GuiceBerry.
+   */
+  public static final String SET_UP_NANOS_ATTRIBUTE = "GuiceBerrySetUpNanos";
+
+  /**
+   * The {@link ITestResult} attribute holding how many nanoseconds it took
+   * to tear down the test.
+   */
+  public static final String TEAR_DOWN_NANOS_ATTRIBUTE = "GuiceBerryTearDownNanos";
+
+  private static final Logger logger =
+    Logger.getLogger(TestNgGuiceBerryListener.class.getName());
+
+  public void run(IHookCallBack callBack, ITestResult testResult) {
+    Object testCase = testResult.getInstance();
+    Class<? extends Module> gbeClass = envClassOf(testCase);
+    if (gbeClass == null) {
+      callBack.runTestMethod(testResult);
+      return;
+    }
+    TestDescription testDescription = TestNgGuiceBerry.buildTestDescription(
+        testCase, testResult.getMethod().getMethodName());
+    GuiceBerryWrapper setUpAndTearDown = GuiceBerry.INSTANCE.buildWrapper(
+        testDescription, DefaultEnvSelector.of(gbeClass));
+
+    long start = System.nanoTime();
+    long setUpNanos = -1;
+    try {
+      setUpAndTearDown.runBeforeTest();
+      setUpNanos = System.nanoTime() - start;
+      testResult.setAttribute(SET_UP_NANOS_ATTRIBUTE, setUpNanos);
+      callBack.runTestMethod(testResult);
+    } finally {
+      long tearDownStart = System.nanoTime();
+      setUpAndTearDown.runAfterTest();
+      long tearDownNanos = System.nanoTime() - tearDownStart;
+      testResult.setAttribute(TEAR_DOWN_NANOS_ATTRIBUTE, tearDownNanos);
+      if (logger.isLoggable(Level.FINE)) {
+        logger.fine(String.format(
+            "Test '%s' took %d ms to set up and %d ms to tear down.",
+            testDescription.getName(),
+            TimeUnit.NANOSECONDS.toMillis(setUpNanos),
+            TimeUnit.NANOSECONDS.toMillis(tearDownNanos)));
+      }
+    }
+  }
+
+  public List<IMethodInstance> intercept(List<IMethodInstance> methods,
+      ITestContext context) {
+    Map<Class<? extends Module>, List<IMethodInstance>> byEnv =
+      Maps.newLinkedHashMap();
+    List<IMethodInstance> withoutEnv = Lists.newArrayList();
+    for (IMethodInstance method : methods) {
+      Object[] instances = method.getInstances();
+      Class<? extends Module> gbeClass = (instances.length == 0)
+          ? null
+          : envClassOf(instances[0]);
+      if (gbeClass == null) {
+        withoutEnv.add(method);
+        continue;
+      }
+      List<IMethodInstance> sameEnv = byEnv.get(gbeClass);
+      if (sameEnv == null) {
+        sameEnv = Lists.newArrayList();
+        byEnv.put(gbeClass, sameEnv);
+      }
+      sameEnv.add(method);
+    }
+    List<IMethodInstance> result = Lists.newArrayList(withoutEnv);
+    for (List<IMethodInstance> sameEnv : byEnv.values()) {
+      result.addAll(sameEnv);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the env {@code testCase} is to be run with, or null if it is not
+   * annotated with {@link TestNgGuiceBerryEnv}.
+   */
+  private static Class<? extends Module> envClassOf(Object testCase) {
+    if (testCase == null) {
+      return null;
+    }
+    TestNgGuiceBerryEnv annotation =
+      testCase.getClass().getAnnotation(TestNgGuiceBerryEnv.class);
+    if (annotation == null) {
+      return null;
+    }
+    return DefaultEnvSelector.of(annotation.value())
+        .guiceBerryEnvToUse(new TestDescription(testCase, testCase.getClass().getName()));
+  }
+}
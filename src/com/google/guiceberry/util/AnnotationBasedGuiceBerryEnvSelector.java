@@ -16,14 +16,18 @@
 package com.google.guiceberry.util;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
 import com.google.guiceberry.DefaultEnvSelector;
 import com.google.guiceberry.GuiceBerryEnvSelector;
 import com.google.guiceberry.TestDescription;
+import com.google.guiceberry.index.EnvIndex;
 import com.google.guiceberry.junit3.AnnotationBasedAutoTearDownGuiceBerry;
 import com.google.guiceberry.junit3.AnnotationBasedManualTearDownGuiceBerry;
 import com.google.inject.Module;
 import com.google.inject.testing.guiceberry.GuiceBerryEnv;
 
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * A {@link GuiceBerryEnvSelector} that is based on the {@link AnnotatedGuiceBerryEnv}
  * annotation, though it also honors the {@link DefaultEnvSelector}'s override.
@@ -36,17 +40,43 @@ import com.google.inject.testing.guiceberry.GuiceBerryEnv;
 public class AnnotationBasedGuiceBerryEnvSelector implements GuiceBerryEnvSelector {
 
   public static final GuiceBerryEnvSelector INSTANCE = new AnnotationBasedGuiceBerryEnvSelector();
+
+  /**
+   * The (non-overridden) GuiceBerry Env of each test class seen so far.
+   */
+  private static final ConcurrentMap<Class<?>, DeclaredGbe> declaredGbes =
+      new MapMaker().weakKeys().makeMap();
+
   public Class<? extends Module> guiceBerryEnvToUse(TestDescription testDescription) {
-    String gbeName = getGbeNameFromGbeAnnotation(testDescription);
+    DeclaredGbe declaredGbe = getDeclaredGbe(testDescription.getTestCaseClass());
     
-    if (DefaultEnvSelector.isOverridden(gbeName)) {
-      return DefaultEnvSelector.of(gbeName).guiceBerryEnvToUse(testDescription);
+    if (DefaultEnvSelector.isOverridden(declaredGbe.name)) {
+      return DefaultEnvSelector.of(declaredGbe.name).guiceBerryEnvToUse(testDescription);
+    }
+    return declaredGbe.clazz;
+  }
+
+  /**
+   * Returns the GuiceBerry Env declared by the annotation of
+   * {@code testCaseClass}. The annotation is only looked up (and the env
+   * class loaded) the first time a test of that class runs, and not even
+   * then if the class is in the {@link EnvIndex}.
+   */
+  private static DeclaredGbe getDeclaredGbe(Class<?> testCaseClass) {
+    DeclaredGbe result = declaredGbes.get(testCaseClass);
+    if (result != null) {
+      return result;
+    }
+    String gbeName = EnvIndex.load(testCaseClass.getClassLoader())
+        .getEnvName(testCaseClass.getName());
+    if (gbeName == null) {
+      gbeName = getGbeNameFromGbeAnnotation(testCaseClass);
     }
 
     Class<? extends Module> gbeClass = getGbeClassFromClassName(gbeName);
     if (!Module.class.isAssignableFrom(gbeClass)) {
       String annotationName;
-      if (isOldAnnotation(testDescription.getTestCaseClass())) {
+      if (isOldAnnotation(testCaseClass)) {
         annotationName = GuiceBerryEnv.class.getSimpleName();
       } else {
         annotationName = AnnotatedGuiceBerryEnv.class.getSimpleName();
@@ -57,12 +87,17 @@ public class AnnotationBasedGuiceBerryEnvSelector implements GuiceBerryEnvSelect
           gbeClass.getName()); 
       throw new IllegalArgumentException(msg);
     }
-    return gbeClass;
+    result = new DeclaredGbe(gbeName, gbeClass);
+    declaredGbes.put(testCaseClass, result);
+    return result;
   }
   
   @VisibleForTesting
   static String getGbeNameFromGbeAnnotation(TestDescription testDescription) {
-    Class<?> testCaseClass = testDescription.getTestCaseClass();
+    return getGbeNameFromGbeAnnotation(testDescription.getTestCaseClass());
+  }
+
+  private static String getGbeNameFromGbeAnnotation(Class<?> testCaseClass) {
     GuiceBerryEnv gbeAnnotation = getGbeAnnotation(testCaseClass);
     AnnotatedGuiceBerryEnv annotatedGbeAnnotation = getAnnotatedGbeAnnotation(testCaseClass);
 
@@ -117,4 +152,14 @@ public class AnnotationBasedGuiceBerryEnvSelector implements GuiceBerryEnvSelect
     }
     return (Class<? extends Module>) className;
   }
+
+  private static final class DeclaredGbe {
+    final String name;
+    final Class<? extends Module> clazz;
+
+    DeclaredGbe(String name, Class<? extends Module> clazz) {
+      this.name = name;
+      this.clazz = clazz;
+    }
+  }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.util;
+
+import com.google.guiceberry.TestDescription;
+import com.google.guiceberry.TestWrapper;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link Scope} for resettable singletons, i.e. those classes that, at any
+ * given moment in time, are singletons, but whose instance can be thrown away
+ * (see {@link #reset()}), to be lazily built anew the next time it is
+ * injected. This gives tests isolation from the state of these singletons,
+ * without the cost of building a new {@link com.google.inject.Injector}.
+ *
+ * <p>It is safe to use this scope from multiple threads, and
+ * {@link #reset()} takes constant time, regardless of how many instances
+ * there are: each reset starts a new "generation" of instances.
+ *
+ * <p>Resets can happen automatically, before each test or each test class
+ * (see {@link ResetPolicy}), by having a {@link TestWrapper} call
+ * {@link #beforeTest(TestDescription)}, e.g., in your GuiceBerry Env:
+ *
+ * <pre>
+ * {@literal @}Provides
+ * TestWrapper getTestWrapper(ResettableSingletonScope scope,
+ *     TestDescription testDescription) {
+ *   return scope.asTestWrapper(testDescription);
+ * }
+ * </pre>
+ *
+ * <p>Note that an automatic reset affects all tests using this scope's
+ * injector, so tests of an env with automatic resets should not run
+ * concurrently, unless the env is
+ * {@link com.google.guiceberry.GuiceBerryEnvIsolation.Level#POOLED}.
+ */
+public class ResettableSingletonScope implements Scope {
+
+  /**
+   * When {@link ResettableSingletonScope#beforeTest(TestDescription)} resets
+   * the scope.
+   */
+  public enum ResetPolicy {
+    /** Before every test. */
+    PER_TEST,
+    /** Before the first test of each test class. */
+    PER_CLASS,
+    /** Never: only when {@link ResettableSingletonScope#reset()} is called. */
+    MANUAL
+  }
+
+  private final ResetPolicy resetPolicy;
+
+  private volatile Generation currentGeneration = new Generation(0);
+
+  private Class<?> lastTestClass;
+
+  /**
+   * Creates a scope with the {@link ResetPolicy#MANUAL} policy.
+   */
+  public ResettableSingletonScope() {
+    this(ResetPolicy.MANUAL);
+  }
+
+  public ResettableSingletonScope(ResetPolicy resetPolicy) {
+    if (resetPolicy == null) {
+      throw new NullPointerException("resetPolicy");
+    }
+    this.resetPolicy = resetPolicy;
+  }
+
+  /**
+   * Throws away all the instances built so far. Each of them is built again
+   * the next time it gets injected.
+   */
+  public void reset() {
+    synchronized (this) {
+      currentGeneration = new Generation(currentGeneration.number + 1);
+    }
+  }
+
+  /**
+   * Returns how many times this scope was reset.
+   */
+  public long getGeneration() {
+    return currentGeneration.number;
+  }
+
+  /**
+   * Resets this scope if its {@link ResetPolicy} says so. This should be
+   * called before each test, see {@link #asTestWrapper(TestDescription)}.
+   */
+  public void beforeTest(TestDescription testDescription) {
+    switch (resetPolicy) {
+      case PER_TEST:
+        reset();
+        break;
+      case PER_CLASS:
+        synchronized (this) {
+          Class<?> testClass = testDescription.getTestCaseClass();
+          if (testClass != lastTestClass) {
+            lastTestClass = testClass;
+            reset();
+          }
+        }
+        break;
+      case MANUAL:
+        break;
+    }
+  }
+
+  /**
+   * Returns a {@link TestWrapper} that calls
+   * {@link #beforeTest(TestDescription)} for the given test.
+   */
+  public TestWrapper asTestWrapper(final TestDescription testDescription) {
+    return new TestWrapper() {
+      public void toRunBeforeTest() {
+        beforeTest(testDescription);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
+
+    return new Provider<T>() {
+      public T get() {
+        Generation generation = currentGeneration;
+        Object o = generation.instances.get(key);
+        if (o != null) {
+          return (T) o;
+        }
+        // double checked locking -- handle with extreme care! We lock on
+        // each key separately, so that different keys can be built
+        // concurrently.
+        synchronized (generation.lockFor(key)) {
+          o = generation.instances.get(key);
+          if (o == null) {
+            o = unscoped.get();
+            generation.instances.put(key, o);
+          }
+          return (T) o;
+        }
+      }
+
+      @Override
+      public String toString() {
+        return String.format("%s[%s]", unscoped, ResettableSingletonScope.this);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s(%s)", getClass().getSimpleName(), resetPolicy);
+  }
+
+  private static final class Generation {
+    final long number;
+    final ConcurrentMap<Key<?>, Object> instances = new ConcurrentHashMap<Key<?>, Object>();
+    final ConcurrentMap<Key<?>, Object> locks = new ConcurrentHashMap<Key<?>, Object>();
+
+    Generation(long number) {
+      this.number = number;
+    }
+
+    Object lockFor(Key<?> key) {
+      Object result = locks.get(key);
+      if (result == null) {
+        locks.putIfAbsent(key, new Object());
+        result = locks.get(key);
+      }
+      return result;
+    }
+  }
+}
@@ -48,7 +48,10 @@ import junit.framework.TestCase;
  * {@link TestCase} may use the different modules (but don't have to).
  * </ul>
  * <p>
- *  GuiceBerry is thread-safe so tests can be run in parallel. 
+ *  GuiceBerry is thread-safe so tests can be run in parallel. Each thread
+ *  keeps the state of the test it is running to itself, and tests of
+ *  different GuiceBerry Envs don't even wait for each other's envs to be
+ *  created.
  * 
  * @see Guice
  * 
@@ -132,11 +135,11 @@ public class GuiceBerryJunit3 {
    * @see com.google.guiceberry.TestScoped
    * @see GuiceBerryEnv                                      
    */
-  public synchronized static void setUp(final TestCase testCase) {
+  public static void setUp(final TestCase testCase) {
     INSTANCE.doSetUp(testCase);
   }
 
-  public synchronized void doSetUp(final TestCase testCase) {
+  public void doSetUp(final TestCase testCase) {
     
     TestDescription testDescription = buildDescription(testCase);
 
@@ -195,7 +198,7 @@ public class GuiceBerryJunit3 {
    * @see TestScopeListener
    * @see com.google.guiceberry.TestScoped
    */
-  public synchronized static void tearDown(TestCase testCase) {
+  public static void tearDown(TestCase testCase) {
     if (testCase instanceof TearDownAccepter) {
       throw new UnsupportedOperationException("You must not call " +
       		"GuiceBerryJunit3.tearDown (it's only needed for tests that do " +
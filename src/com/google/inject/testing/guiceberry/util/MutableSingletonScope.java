@@ -16,13 +16,9 @@
 
 package com.google.inject.testing.guiceberry.util;
 
-import com.google.inject.Key;
-import com.google.inject.Provider;
+import com.google.guiceberry.util.ResettableSingletonScope;
 import com.google.inject.Scope;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Convenience class to create a {@link Scope} for mutable/replaceable 
  * singletons, i.e. those classes that, at any given moment in time, are 
@@ -30,11 +26,12 @@ import java.util.Map;
  * 
  * @see #clear()
  * 
+ * @deprecated use {@link ResettableSingletonScope} instead.
+ * 
  * @author zorzella
  */
-public class MutableSingletonScope implements Scope {
-
-  private final Map<Key<?>, Object> backingMap = new HashMap<Key<?>, Object>();
+@Deprecated
+public class MutableSingletonScope extends ResettableSingletonScope {
 
   /**
    * Clears all the cached instances. After this method is called, any 
@@ -42,25 +39,6 @@ public class MutableSingletonScope implements Scope {
    * created again next time it gets injected.
    */
   public void clear() {
-    backingMap.clear();
-  }
-  
-  @SuppressWarnings("unchecked")  
-  public synchronized <T> Provider<T> scope(
-      final Key<T> key, final Provider<T> unscoped) {
-
-    return new Provider<T>() {
-      public T get() {
-
-        Object o = backingMap.get(key);
-
-        if (o == null) {
-          o = unscoped.get();
-          backingMap.put(key, o);
-        }
-        return (T) o;
-      }
-    };
+    reset();
   }
 }
-  
@@ -51,6 +51,17 @@ public class DefaultEnvSelectorTest extends TearDownTestCase {
     assertEquals(MyEnvTwo.class, envSelector.guiceBerryEnvToUse(null));
   }
 
+  public void testCachedSelectionHonorsLaterOverrides() {
+    GuiceBerryEnvSelector envSelector = DefaultEnvSelector.of(MyEnvOne.class);
+    assertEquals(MyEnvOne.class, envSelector.guiceBerryEnvToUse(null));
+
+    override();
+    assertEquals(MyEnvTwo.class, envSelector.guiceBerryEnvToUse(null));
+
+    DefaultEnvSelector.clearOverride(MyEnvOne.class);
+    assertEquals(MyEnvOne.class, envSelector.guiceBerryEnvToUse(null));
+  }
+
   private void override() {
     addTearDown(new TearDown() {
       
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provides;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link EagerTestScopedKeys} class.
+ */
+public class EagerTestScopedKeysTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  /**
+   * Each fixture waits for the other one to be under construction, so this
+   * test can only pass if they are built concurrently.
+   */
+  @Test public void testInferredKeysAreBuiltConcurrently() {
+    MyTest test = new MyTest();
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, "test"), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    try {
+      Assert.assertNotNull(test.one);
+      Assert.assertNotNull(test.two);
+    } finally {
+      scaffolding.runAfterTest();
+    }
+  }
+
+  private static final class One {}
+  private static final class Two {}
+
+  private static final class MyTest {
+    @Inject One one;
+    @Inject Two two;
+  }
+
+  public static final class Env extends AbstractModule {
+
+    private final CyclicBarrier barrier = new CyclicBarrier(2);
+
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+      bind(EagerTestScopedKeys.class).toInstance(EagerTestScopedKeys.inferredFromTest());
+    }
+
+    @SuppressWarnings("unused")
+    @Provides @TestScoped
+    One getOne() throws Exception {
+      barrier.await(5, TimeUnit.SECONDS);
+      return new One();
+    }
+
+    @SuppressWarnings("unused")
+    @Provides @TestScoped
+    Two getTwo() throws Exception {
+      barrier.await(5, TimeUnit.SECONDS);
+      return new Two();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link EnvStartup} class.
+ */
+public class EnvStartupTest extends TestCase {
+
+  private final EnvStartup startup = new EnvStartup("env");
+
+  public void testTasksRunAfterTheirDependencies() throws Exception {
+    final List<String> started = Collections.synchronizedList(Lists.<String>newArrayList());
+    startup.addTask("db", new Runnable() {
+      public void run() {
+        sleep(100);
+        started.add("db");
+      }
+    });
+    startup.addTask("cache", new Runnable() {
+      public void run() {
+        started.add("cache");
+      }
+    });
+    startup.addTask("server", new Runnable() {
+      public void run() {
+        started.add("server");
+      }
+    }, "db", "cache");
+    startup.getReadiness().get(10, TimeUnit.SECONDS);
+    assertEquals(3, started.size());
+    assertEquals("server", started.get(2));
+  }
+
+  public void testDependentsOfAFailedTaskFail() throws Exception {
+    startup.addTask("db", new Runnable() {
+      public void run() {
+        throw new IllegalStateException("no db");
+      }
+    });
+    final boolean[] ran = new boolean[1];
+    startup.addTask("server", new Runnable() {
+      public void run() {
+        ran[0] = true;
+      }
+    }, "db");
+    try {
+      startup.getReadiness("server").get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertEquals("no db", expected.getCause().getCause().getMessage());
+    }
+    assertFalse(ran[0]);
+  }
+
+  public void testUnknownDependency() {
+    try {
+      startup.addTask("server", new Runnable() {
+        public void run() {}
+      }, "db");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertEquals("The component 'server' of the GuiceBerry Env 'env' depends on 'db', "
+          + "which must be added before it.", expected.getMessage());
+    }
+  }
+
+  public void testNoTasksAfterSealing() {
+    startup.seal();
+    try {
+      startup.addTask("server", new Runnable() {
+        public void run() {}
+      });
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.ImmutableList;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link EnvWarmupRunner} class.
+ */
+public class EnvWarmupRunnerTest extends TestCase {
+
+  public void testRunsUntilLatencySettles() {
+    final AtomicInteger runs = new AtomicInteger();
+    // Rounds (of 2 tasks each) take 320, 160 and 80 ms, and then 20 ms
+    Runnable task = new Runnable() {
+      public void run() {
+        int round = (runs.getAndIncrement() / 2) + 1;
+        sleep((round <= 3) ? (640 >> round) : 20);
+      }
+    };
+    EnvWarmupRunner.Result result =
+        new EnvWarmupRunner(20, 0.6).run("env", warmup(task, task));
+    // The tolerance is so large, that the second round already settles it
+    assertEquals(2, result.rounds);
+
+    runs.set(0);
+    result = new EnvWarmupRunner(20, 0.4).run("env", warmup(task, task));
+    assertEquals(5, result.rounds);
+    assertTrue(result.firstRoundLatencyNanos > result.lastRoundLatencyNanos);
+    assertTrue(result.nanos >= result.firstRoundLatencyNanos);
+  }
+
+  public void testStopsAfterMaxRounds() {
+    final AtomicInteger runs = new AtomicInteger();
+    // Each round is twice as slow as the previous one
+    Runnable task = new Runnable() {
+      public void run() {
+        sleep(1L << runs.incrementAndGet());
+      }
+    };
+    EnvWarmupRunner.Result result = new EnvWarmupRunner(4, 0.1).run("env", warmup(task));
+    assertEquals(4, result.rounds);
+    assertEquals(4, runs.get());
+  }
+
+  public void testFailingTask() {
+    Runnable task = new Runnable() {
+      public void run() {
+        throw new IllegalStateException("down");
+      }
+    };
+    try {
+      new EnvWarmupRunner(4, 0.1).run("env", warmup(task));
+      fail();
+    } catch (RuntimeException expected) {
+      assertEquals("Error while warming up the GuiceBerry Env 'env'.", expected.getMessage());
+      assertEquals("down", expected.getCause().getMessage());
+    }
+  }
+
+  private static EnvWarmup warmup(final Runnable... tasks) {
+    return new EnvWarmup() {
+      public List<? extends Runnable> getTasks() {
+        return ImmutableList.copyOf(tasks);
+      }
+    };
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -40,6 +40,9 @@ import com.google.inject.testing.guiceberry.junit3.GuiceBerryJunit3;
 
 import junit.framework.TestCase;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Tests the {@link GuiceBerryJunit3} class.
  * 
@@ -580,6 +583,35 @@ public class GuiceBerryJunit3Test extends TearDownTestCase {
     assertEquals(1, GuiceBerryEnvWithEnvMain.MyGuiceBerryEnvMain.count);
   }
  
+  public void testTestsOfDifferentGbesAreSetUpConcurrently() throws Exception {
+    final GuiceBerryJunit3 guiceBerryJunit3 = instance();
+    final TestWithBlockingGbe blockedTest = TestWithBlockingGbe.createInstance();
+    final Exception[] blockedFailure = new Exception[1];
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          guiceBerryJunit3.doSetUp(blockedTest);
+        } catch (Exception e) {
+          blockedFailure[0] = e;
+        }
+      }
+    };
+    thread.start();
+    try {
+      assertTrue(GuiceBerryEnvWithBlockingEnvMain.entered.await(10, TimeUnit.SECONDS));
+      // The other env's creation is still blocked, but this must go through
+      TestWithGbeOne test = TestWithGbeOne.createInstance();
+      guiceBerryJunit3.doSetUp(test);
+      assertNotNull(test.fooService);
+    } finally {
+      GuiceBerryEnvWithBlockingEnvMain.release.countDown();
+      thread.join();
+    }
+    assertNull(blockedFailure[0]);
+    assertTrue(GuiceBerryEnvWithBlockingEnvMain.released);
+  }
+
   public void testTearDownOnModuleNoTestScopeListenerBindingNoPreviousSetUp() {
 
     TestWithGbeThatDoesNotBindATestScopeListener test = 
@@ -895,6 +927,14 @@ public class GuiceBerryJunit3Test extends TearDownTestCase {
     }
   }
 
+  @GuiceBerryEnv(GuiceBerryEnvWithBlockingEnvMain.GUICE_BERRY_ENV_WITH_BLOCKING_ENV_MAIN)
+  private static final class TestWithBlockingGbe extends TearDownTestCase {
+
+    private static TestWithBlockingGbe createInstance() {
+      return namedTest(new TestWithBlockingGbe());
+    }
+  }
+
   @GuiceBerryEnv(GUICE_BERRY_ENV_THAT_DOES_NOT_EXIST)
   private static final class TestWithNonExistingGbe extends TearDownTestCase {
     
@@ -1057,6 +1097,35 @@ public class GuiceBerryJunit3Test extends TearDownTestCase {
       bind(GuiceBerryEnvMain.class).to(MyGuiceBerryEnvMain.class);
     }
   }
+  public static class GuiceBerryEnvWithBlockingEnvMain extends AbstractModule {
+    static final String GUICE_BERRY_ENV_WITH_BLOCKING_ENV_MAIN = 
+      GuiceBerryJunit3Test.SELF_CANONICAL_NAME + "$" +
+      		"GuiceBerryEnvWithBlockingEnvMain";
+
+    static final CountDownLatch entered = new CountDownLatch(1);
+    static final CountDownLatch release = new CountDownLatch(1);
+    static volatile boolean released = false;
+
+    static final class MyGuiceBerryEnvMain implements GuiceBerryEnvMain {
+      
+      public void run() {
+        entered.countDown();
+        try {
+          released = release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+    
+    @Override
+    public void configure() {
+      install(new DeprecatedGuiceBerryModule(currentUniverse));
+      bind(TestScopeListener.class).toInstance(new NoOpTestScopeListener());
+      bind(GuiceBerryEnvMain.class).to(MyGuiceBerryEnvMain.class);
+    }
+  }
+
   public static class GuiceBerryEnvWithoutBindingsForFooOrBar 
       extends AbstractModule  {
     static final String GUICE_BERRY_ENV_WITHOUT_BINDINGS_FOR_FOO_OR_BAR =
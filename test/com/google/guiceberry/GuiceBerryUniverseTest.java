@@ -15,6 +15,7 @@
  */
 package com.google.guiceberry;
 
+import com.google.common.collect.Lists;
 import com.google.common.testing.TearDown;
 import com.google.common.testing.TearDownAccepter;
 import com.google.inject.AbstractModule;
@@ -22,9 +23,18 @@ import com.google.inject.Binder;
 import com.google.inject.Inject;
 import com.google.inject.Module;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
 
 import junit.framework.Assert;
 
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -205,4 +215,448 @@ public class GuiceBerryUniverseTest {
     }
   }
 
+  @Test public void testLazyInjectedFieldIsOnlyBuiltOnFirstUse() {
+    GuiceBerryEnvSelector guiceBerryEnvSelector = DefaultEnvSelector.of(MyGuiceBerryEnvWithLazyFixture.class);
+    MyTestWithLazyField test = new MyTestWithLazyField();
+    TestDescription testDescription = new TestDescription(test, "lazy test case");
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding = 
+      new GuiceBerryUniverse.TestCaseScaffolding(testDescription, guiceBerryEnvSelector, universe);
+    
+    MyGuiceBerryEnvWithLazyFixture.built = 0;
+    testCaseScaffolding.runBeforeTest();
+    try {
+      Assert.assertNotNull(test.fixture);
+      Assert.assertEquals(0, MyGuiceBerryEnvWithLazyFixture.built);
+      Assert.assertEquals("lazy", test.fixture.call());
+      Assert.assertEquals("lazy", test.fixture.call());
+      Assert.assertEquals(1, MyGuiceBerryEnvWithLazyFixture.built);
+    } finally {
+      testCaseScaffolding.runAfterTest();
+    }
+  }
+
+  private interface LazyFixture {
+    String call();
+  }
+
+  private static final class MyTestWithLazyField {
+    @LazyInject
+    LazyFixture fixture;
+  }
+
+  private static final class MyGuiceBerryEnvWithLazyFixture extends AbstractModule {
+
+    private static int built = 0;
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+    }
+
+    @SuppressWarnings("unused")
+    public MyGuiceBerryEnvWithLazyFixture() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+
+    @SuppressWarnings("unused")
+    @Provides
+    @TestScoped
+    LazyFixture getLazyFixture() {
+      built++;
+      return new LazyFixture() {
+        public String call() {
+          return "lazy";
+        }
+      };
+    }
+  }
+
+  @Test public void testEnvIsCreatedInTheAnnotatedStage() {
+    runBeforeAndAfter(MyGuiceBerryEnvInProductionStage.class);
+    Assert.assertEquals(Stage.PRODUCTION, universe.gbeClassToInjectorMap
+        .get(MyGuiceBerryEnvInProductionStage.class).getInstance(Stage.class));
+  }
+
+  @Test public void testSystemPropertyOverridesTheAnnotatedStage() {
+    String property = GuiceBerryUniverse.STAGE_SYSTEM_PROPERTY_NAME + "_"
+        + MyGuiceBerryEnvInProductionStage.class.getName();
+    System.setProperty(property, Stage.DEVELOPMENT.name());
+    try {
+      runBeforeAndAfter(MyGuiceBerryEnvInProductionStage.class);
+    } finally {
+      System.clearProperty(property);
+    }
+    Assert.assertEquals(Stage.DEVELOPMENT, universe.gbeClassToInjectorMap
+        .get(MyGuiceBerryEnvInProductionStage.class).getInstance(Stage.class));
+  }
+
+  private static void runBeforeAndAfter(Class<? extends Module> gbeClass) {
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          bogusTestDescription(), DefaultEnvSelector.of(gbeClass), universe);
+    testCaseScaffolding.runBeforeTest();
+    testCaseScaffolding.runAfterTest();
+  }
+
+  @GuiceBerryEnvStage(Stage.PRODUCTION)
+  private static final class MyGuiceBerryEnvInProductionStage extends AbstractModule {
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+    }
+
+    @SuppressWarnings("unused")
+    public MyGuiceBerryEnvInProductionStage() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+  }
+
+  @Test public void testDerivedEnvsShareTheirParentsSingletons() {
+    MyParentGuiceBerryEnv.mainRuns = 0;
+    MyTestOfDerivedEnv first = new MyTestOfDerivedEnv();
+    MyTestOfDerivedEnv second = new MyTestOfDerivedEnv();
+    runTest(first, MyDerivedGuiceBerryEnv0.class);
+    runTest(second, MyDerivedGuiceBerryEnv1.class);
+
+    Assert.assertSame(first.singleton, second.singleton);
+    Assert.assertEquals("zero", first.name);
+    Assert.assertEquals("one", second.name);
+    Assert.assertEquals(1, MyParentGuiceBerryEnv.mainRuns);
+    Assert.assertSame(
+        universe.gbeClassToInjectorMap.get(MyParentGuiceBerryEnv.class),
+        universe.gbeClassToInjectorMap.get(MyDerivedGuiceBerryEnv0.class).getParent());
+  }
+
+  private static void runTest(Object test, Class<? extends Module> gbeClass) {
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, "derived test case"), DefaultEnvSelector.of(gbeClass),
+          universe);
+    testCaseScaffolding.runBeforeTest();
+    testCaseScaffolding.runAfterTest();
+  }
+
+  private static final class MyTestOfDerivedEnv {
+    @Inject
+    SharedSingleton singleton;
+
+    @Inject
+    @Named("name")
+    String name;
+  }
+
+  @Singleton
+  private static final class SharedSingleton {}
+
+  private static final class MyParentGuiceBerryEnv extends AbstractModule {
+
+    private static int mainRuns = 0;
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+      bind(SharedSingleton.class);
+      bind(GuiceBerryEnvMain.class).toInstance(new GuiceBerryEnvMain() {
+        public void run() {
+          mainRuns++;
+        }
+      });
+    }
+
+    @SuppressWarnings("unused")
+    public MyParentGuiceBerryEnv() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+  }
+
+  @GuiceBerryEnvParent(MyParentGuiceBerryEnv.class)
+  public static final class MyDerivedGuiceBerryEnv0 extends AbstractModule {
+    @Override
+    protected void configure() {
+      bindConstant().annotatedWith(Names.named("name")).to("zero");
+    }
+  }
+
+  @GuiceBerryEnvParent(MyParentGuiceBerryEnv.class)
+  public static final class MyDerivedGuiceBerryEnv1 extends AbstractModule {
+    @Override
+    protected void configure() {
+      bindConstant().annotatedWith(Names.named("name")).to("one");
+    }
+  }
+
+  @Test public void testTestsOnlyWaitForTheEnvComponentsTheyNeed() throws Exception {
+    MyAsyncGuiceBerryEnv.slowServerMayStart = new CountDownLatch(1);
+    GuiceBerryUniverse.TestCaseScaffolding fastTest =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(new MyTestNeedingTheFastServer(), "fast test case"),
+          DefaultEnvSelector.of(MyAsyncGuiceBerryEnv.class), universe);
+    fastTest.runBeforeTest();
+    fastTest.runAfterTest();
+
+    final GuiceBerryUniverse.TestCaseScaffolding slowTest =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(new MyTest(), "slow test case"),
+          DefaultEnvSelector.of(MyAsyncGuiceBerryEnv.class), universe);
+    Thread settingUp = new Thread() {
+      @Override
+      public void run() {
+        slowTest.runBeforeTest();
+        slowTest.runAfterTest();
+      }
+    };
+    settingUp.start();
+    settingUp.join(200);
+    Assert.assertTrue(settingUp.isAlive());
+    MyAsyncGuiceBerryEnv.slowServerMayStart.countDown();
+    settingUp.join(10000);
+    Assert.assertFalse(settingUp.isAlive());
+    universe.shutDownAllEnvs();
+  }
+
+  @Test public void testFailedEnvComponentFailsTheTestsThatNeedIt() throws Exception {
+    MyAsyncGuiceBerryEnv.slowServerMayStart = null;
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          bogusTestDescription(), DefaultEnvSelector.of(MyAsyncGuiceBerryEnv.class), universe);
+    try {
+      testCaseScaffolding.runBeforeTest();
+      Assert.fail();
+    } catch (RuntimeException expected) {
+      Assert.assertEquals(String.format(
+          "The GuiceBerry Env '%s' failed to start its components.",
+          MyAsyncGuiceBerryEnv.class.getName()), expected.getMessage());
+    } finally {
+      testCaseScaffolding.runAfterTest();
+    }
+    universe.shutDownAllEnvs();
+  }
+
+  @AwaitEnvComponents("fast")
+  private static final class MyTestNeedingTheFastServer {
+    @Inject
+    TearDownAccepter accepter;
+  }
+
+  private static final class MyAsyncGuiceBerryEnv extends AbstractModule {
+
+    private static CountDownLatch slowServerMayStart;
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+      bind(AsyncGuiceBerryEnvMain.class).toInstance(new AsyncGuiceBerryEnvMain() {
+        public void start(EnvStartup startup) {
+          startup.addTask("fast", new Runnable() {
+            public void run() {}
+          });
+          startup.addTask("slow", new Runnable() {
+            public void run() {
+              if (slowServerMayStart == null) {
+                throw new IllegalStateException();
+              }
+              try {
+                slowServerMayStart.await();
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+            }
+          }, "fast");
+        }
+      });
+    }
+
+    @SuppressWarnings("unused")
+    public MyAsyncGuiceBerryEnv() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+  }
+
+  @Test public void testEnvIsWarmedUpOnceItsComponentsAreReady() throws Exception {
+    MyWarmedUpGuiceBerryEnv.started = false;
+    MyWarmedUpGuiceBerryEnv.warmupRuns = 0;
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          bogusTestDescription(), DefaultEnvSelector.of(MyWarmedUpGuiceBerryEnv.class), universe);
+    testCaseScaffolding.runBeforeTest();
+    testCaseScaffolding.runAfterTest();
+    Assert.assertTrue(MyWarmedUpGuiceBerryEnv.warmupRuns >= 2);
+    universe.shutDownAllEnvs();
+  }
+
+  private static final class MyWarmedUpGuiceBerryEnv extends AbstractModule {
+
+    private static volatile boolean started;
+
+    private static volatile int warmupRuns;
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+      bind(AsyncGuiceBerryEnvMain.class).toInstance(new AsyncGuiceBerryEnvMain() {
+        public void start(EnvStartup startup) {
+          startup.addTask("server", new Runnable() {
+            public void run() {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              started = true;
+            }
+          });
+        }
+      });
+      bind(EnvWarmup.class).toInstance(new EnvWarmup() {
+        public List<? extends Runnable> getTasks() {
+          return Collections.singletonList(new Runnable() {
+            public void run() {
+              if (!started) {
+                throw new IllegalStateException();
+              }
+              warmupRuns++;
+            }
+          });
+        }
+      });
+    }
+
+    @SuppressWarnings("unused")
+    public MyWarmedUpGuiceBerryEnv() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+  }
+
+  @Test public void testListenersAreToldAboutEachStep() throws Exception {
+    RecordingListener universeListener = new RecordingListener("universe");
+    universe.addListener(universeListener);
+    MyListenedToGuiceBerryEnv.listener = new RecordingListener("env");
+    TestDescription testDescription = bogusTestDescription();
+    GuiceBerryUniverse.TestCaseScaffolding testCaseScaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          testDescription, DefaultEnvSelector.of(MyListenedToGuiceBerryEnv.class), universe);
+    testCaseScaffolding.runBeforeTest();
+    ((MyTest) testDescription.getTestCase()).accepter.addTearDown(new TearDown() {
+      public void tearDown() {}
+    });
+    testCaseScaffolding.runAfterTest();
+
+    Assert.assertEquals(Lists.newArrayList(
+        "setUpPhaseStarted ENV",
+        "envCreationStarted MyListenedToGuiceBerryEnv",
+        "envCreationFinished MyListenedToGuiceBerryEnv null",
+        "setUpPhaseFinished ENV",
+        "setUpPhaseStarted TEST_WRAPPER",
+        "setUpPhaseFinished TEST_WRAPPER",
+        "setUpPhaseStarted EAGER_TEST_SCOPED_KEYS",
+        "setUpPhaseFinished EAGER_TEST_SCOPED_KEYS",
+        "setUpPhaseStarted MEMBER_INJECTION",
+        "setUpPhaseFinished MEMBER_INJECTION",
+        "tearDownFinished null",
+        "testScopeFinished TestPooled",
+        "testScopeFinished TestScoped"),
+        universeListener.events);
+    Assert.assertEquals(Lists.newArrayList(
+        "envCreationFinished MyListenedToGuiceBerryEnv null",
+        "setUpPhaseStarted TEST_WRAPPER",
+        "setUpPhaseFinished TEST_WRAPPER",
+        "setUpPhaseStarted EAGER_TEST_SCOPED_KEYS",
+        "setUpPhaseFinished EAGER_TEST_SCOPED_KEYS",
+        "setUpPhaseStarted MEMBER_INJECTION",
+        "setUpPhaseFinished MEMBER_INJECTION",
+        "tearDownFinished null",
+        "testScopeFinished TestPooled",
+        "testScopeFinished TestScoped"),
+        MyListenedToGuiceBerryEnv.listener.events);
+    Assert.assertTrue(universeListener.lastNanoTime > 0);
+
+    universe.removeListener(universeListener);
+    universeListener.events.clear();
+    universe.shutDownAllEnvs();
+    Assert.assertTrue(universeListener.events.isEmpty());
+  }
+
+  private static final class RecordingListener implements GuiceBerryListener {
+
+    private final String name;
+    private final List<String> events =
+        Collections.synchronizedList(Lists.<String>newArrayList());
+    private volatile long lastNanoTime;
+
+    RecordingListener(String name) {
+      this.name = name;
+    }
+
+    private void record(String event, long nanoTime) {
+      events.add(event);
+      lastNanoTime = nanoTime;
+    }
+
+    public void envCreationStarted(Class<? extends Module> gbeClass, long nanoTime) {
+      record("envCreationStarted " + gbeClass.getSimpleName(), nanoTime);
+    }
+
+    public void envCreationFinished(Class<? extends Module> gbeClass, long nanoTime,
+        Throwable failure) {
+      record("envCreationFinished " + gbeClass.getSimpleName() + " " + failure, nanoTime);
+    }
+
+    public void setUpPhaseStarted(TestDescription testDescription, SetUpPhase phase,
+        long nanoTime) {
+      record("setUpPhaseStarted " + phase, nanoTime);
+    }
+
+    public void setUpPhaseFinished(TestDescription testDescription, SetUpPhase phase,
+        long nanoTime) {
+      record("setUpPhaseFinished " + phase, nanoTime);
+    }
+
+    public void tearDownFinished(TestDescription testDescription, TearDown tearDown,
+        long startNanoTime, long endNanoTime, Throwable failure) {
+      record("tearDownFinished " + failure, endNanoTime);
+    }
+
+    public void testScopeFinished(TestDescription testDescription,
+        Class<? extends Annotation> scope, long nanoTime) {
+      record("testScopeFinished " + scope.getSimpleName(), nanoTime);
+    }
+
+    public void testClassScopeFinished(Class<?> testClass, long nanoTime) {
+      record("testClassScopeFinished " + testClass.getSimpleName(), nanoTime);
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final class MyListenedToGuiceBerryEnv extends AbstractModule {
+
+    private static RecordingListener listener;
+
+    private final GuiceBerryModule gbm;
+
+    @Override
+    protected void configure() {
+      install(gbm);
+      bind(GuiceBerryListener.class).toInstance(listener);
+    }
+
+    @SuppressWarnings("unused")
+    public MyListenedToGuiceBerryEnv() {
+      this.gbm = new GuiceBerryModule(GuiceBerryUniverseTest.universe);
+    }
+  }
 }
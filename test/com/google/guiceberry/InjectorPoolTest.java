@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link InjectorPool} class.
+ */
+public class InjectorPoolTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  private static int shutDowns = 0;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+    shutDowns = 0;
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  @Test public void testConcurrentTestsOfAPooledEnvGetDifferentInjectors() throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    Callable<MutableSingleton> runTest = new Callable<MutableSingleton>() {
+      public MutableSingleton call() throws Exception {
+        MyTest test = new MyTest();
+        GuiceBerryUniverse.TestCaseScaffolding scaffolding = newScaffolding(test, PooledEnv.class);
+        scaffolding.runBeforeTest();
+        try {
+          // Both tests hold their leases at the same time
+          barrier.await(10, TimeUnit.SECONDS);
+        } finally {
+          scaffolding.runAfterTest();
+        }
+        return test.singleton;
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<MutableSingleton> first = executor.submit(runTest);
+      Future<MutableSingleton> second = executor.submit(runTest);
+      Assert.assertNotSame(first.get(), second.get());
+    } finally {
+      executor.shutdown();
+    }
+    InjectorPool pool = universe.getInjectorPool(PooledEnv.class);
+    Assert.assertEquals(2, pool.getInjectors().size());
+    Assert.assertEquals(2, pool.getLeases());
+
+    universe.shutDownEnv(PooledEnv.class);
+    Assert.assertEquals(2, shutDowns);
+  }
+
+  @Test public void testEachClassGetsAFreshInjector() {
+    MyTest first = new MyTest();
+    MyTest second = new MyTest();
+    MyOtherTest third = new MyOtherTest();
+    runTest(first);
+    runTest(second);
+    Assert.assertSame(first.singleton, second.singleton);
+    Assert.assertEquals(0, shutDowns);
+
+    runTest(third);
+    Assert.assertNotSame(first.singleton, third.singleton);
+    // Moving on to another class retires the previous class's injector
+    Assert.assertEquals(1, shutDowns);
+
+    universe.shutDownEnv(FreshPerClassEnv.class);
+    Assert.assertEquals(2, shutDowns);
+  }
+
+  private static void runTest(MyTest test) {
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      newScaffolding(test, FreshPerClassEnv.class);
+    scaffolding.runBeforeTest();
+    scaffolding.runAfterTest();
+  }
+
+  private static GuiceBerryUniverse.TestCaseScaffolding newScaffolding(
+      MyTest test, Class<? extends AbstractModule> gbeClass) {
+    return new GuiceBerryUniverse.TestCaseScaffolding(
+        new TestDescription(test, "test"), DefaultEnvSelector.of(gbeClass), universe);
+  }
+
+  @Singleton
+  static final class MutableSingleton {}
+
+  private static class MyTest {
+    @Inject MutableSingleton singleton;
+  }
+
+  private static final class MyOtherTest extends MyTest {}
+
+  private abstract static class CountingEnv extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+      bind(GuiceBerryEnvShutdown.class).toInstance(new GuiceBerryEnvShutdown() {
+        public void shutDown() {
+          synchronized (InjectorPoolTest.class) {
+            shutDowns++;
+          }
+        }
+      });
+    }
+  }
+
+  @GuiceBerryEnvIsolation(value = GuiceBerryEnvIsolation.Level.POOLED, poolSize = 2)
+  public static final class PooledEnv extends CountingEnv {}
+
+  @GuiceBerryEnvIsolation(GuiceBerryEnvIsolation.Level.FRESH_PER_CLASS)
+  public static final class FreshPerClassEnv extends CountingEnv {}
+}
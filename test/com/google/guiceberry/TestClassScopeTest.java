@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.testing.TearDown;
+import com.google.common.testing.TearDownAccepter;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link TestClassScope} class.
+ */
+public class TestClassScopeTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+    Env.built.set(0);
+    Env.tornDown.set(0);
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  @Test public void testInstanceIsSharedByTheTestsOfAClass() {
+    ClassOne first = new ClassOne();
+    ClassOne second = new ClassOne();
+    runTest(first, "first");
+    runTest(second, "second");
+    Assert.assertSame(first.fixture, second.fixture);
+    Assert.assertEquals(1, Env.built.get());
+    Assert.assertEquals(0, Env.tornDown.get());
+  }
+
+  @Test public void testScopeIsFinishedWhenTheNextClassStarts() {
+    ClassOne one = new ClassOne();
+    ClassTwo two = new ClassTwo();
+    runTest(one, "one");
+    runTest(two, "two");
+    Assert.assertNotSame(one.fixture, two.fixture);
+    Assert.assertEquals(2, Env.built.get());
+    Assert.assertEquals(1, Env.tornDown.get());
+  }
+
+  @Test public void testScopeIsNotFinishedUnderARunningTest() {
+    ClassOne running = new ClassOne();
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(running, "running"), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    Thread otherThread = new Thread() {
+      @Override
+      public void run() {
+        runTest(new ClassOne(), "one");
+        // Would finish ClassOne's scope, were it not for the running test
+        runTest(new ClassTwo(), "two");
+      }
+    };
+    otherThread.start();
+    try {
+      otherThread.join();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+    Assert.assertFalse(running.fixture.closed);
+    Assert.assertEquals(0, Env.tornDown.get());
+    scaffolding.runAfterTest();
+  }
+
+  @Test public void testScopeOutlivesTheDeferredTearDownsOfItsTests()
+      throws Exception {
+    final ClassOne one = new ClassOne();
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(one, "one"), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicBoolean fixtureWasOpen = new AtomicBoolean();
+    one.tearDownAccepter.addTearDown(new DeferrableTearDown() {
+      public void tearDown() throws Exception {
+        latch.await();
+        fixtureWasOpen.set(!one.fixture.closed);
+      }
+    });
+    scaffolding.runAfterTest();
+    // Would finish ClassOne's scope, were it not for its deferred tear down
+    runTest(new ClassTwo(), "two");
+    Assert.assertFalse(one.fixture.closed);
+    latch.countDown();
+    universe.getDeferredTearDownQueue().flush();
+    Assert.assertTrue(fixtureWasOpen.get());
+    Assert.assertTrue(one.fixture.closed);
+    Assert.assertEquals(1, Env.tornDown.get());
+  }
+
+  @Test public void testConcurrentTestsNeverSeeAFinishedScope() throws Exception {
+    final TestClassScope scope = new TestClassScope(universe);
+    final Provider<Fixture> fixtureProvider =
+      scope.scope(Key.get(Fixture.class), new Provider<Fixture>() {
+        public Fixture get() {
+          return new Fixture();
+        }
+      });
+    final List<Throwable> failures = Lists.newArrayList();
+    List<Thread> threads = Lists.newArrayList();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < 20000; j++) {
+              runTestCheckingItsFixture(scope, fixtureProvider, new ClassOne());
+              runTestCheckingItsFixture(scope, fixtureProvider, new ClassTwo());
+            }
+          } catch (Throwable t) {
+            synchronized (failures) {
+              failures.add(t);
+            }
+          }
+        }
+      };
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals("[]", failures.toString());
+  }
+
+  private static void runTestCheckingItsFixture(TestClassScope scope,
+      Provider<Fixture> fixtureProvider, Object test) {
+    TestDescription testDescription = new TestDescription(test, "test");
+    universe.currentTestDescriptionThreadLocal.set(testDescription);
+    scope.enteringTest(testDescription);
+    try {
+      Fixture fixture = fixtureProvider.get();
+      Thread.yield();
+      Assert.assertFalse(fixture.closed);
+    } finally {
+      scope.exitingTest(testDescription);
+      universe.currentTestDescriptionThreadLocal.remove();
+    }
+  }
+
+  private static void runTest(Object test, String name) {
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, name), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    scaffolding.runAfterTest();
+  }
+
+  private static final class Fixture implements Closeable {
+    volatile boolean closed;
+
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static final class ClassOne {
+    @Inject Fixture fixture;
+    @Inject TearDownAccepter tearDownAccepter;
+  }
+
+  private static final class ClassTwo {
+    @Inject Fixture fixture;
+  }
+
+  public static final class Env extends AbstractModule {
+
+    private static final AtomicInteger built = new AtomicInteger();
+    private static final AtomicInteger tornDown = new AtomicInteger();
+
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+    }
+
+    @SuppressWarnings("unused")
+    @Provides @TestClassScoped
+    Fixture getFixture(TestClassTearDownAccepter tearDownAccepter) {
+      built.incrementAndGet();
+      tearDownAccepter.addTearDown(new TearDown() {
+        public void tearDown() throws Exception {
+          tornDown.incrementAndGet();
+        }
+      });
+      return new Fixture();
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import java.io.Closeable;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link TestPoolScope} class.
+ */
+public class TestPoolScopeTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  @Test public void testResettableInstanceIsReused() {
+    MyTest first = new MyTest();
+    MyTest second = new MyTest();
+    runTest(first, "first");
+    Assert.assertEquals(1, first.fixture.resets);
+    runTest(second, "second");
+    Assert.assertSame(first.fixture, second.fixture);
+    Assert.assertEquals(2, second.fixture.resets);
+
+    TestPoolStats stats = first.monitor.getStats().get(Key.get(ResettableFixture.class));
+    Assert.assertEquals(1, stats.getHits());
+    Assert.assertEquals(1, stats.getMisses());
+    Assert.assertEquals(0.5, stats.getHitRate(), 0.0001);
+    Assert.assertEquals(2, stats.getResets());
+  }
+
+  @Test public void testNonResettableInstanceIsDiscarded() {
+    MyTest first = new MyTest();
+    MyTest second = new MyTest();
+    runTest(first, "first");
+    runTest(second, "second");
+    Assert.assertNotSame(first.other, second.other);
+
+    TestPoolStats stats = first.monitor.getStats().get(Key.get(NonResettableFixture.class));
+    Assert.assertEquals(0, stats.getHits());
+    Assert.assertEquals(2, stats.getDiscarded());
+  }
+
+  @Test public void testIdleInstancesAreClosedWhenTheEnvIsShutDown() {
+    MyTest test = new MyTest();
+    runTest(test, "test");
+    Assert.assertFalse(test.fixture.closed);
+    universe.shutDownEnv(Env.class);
+    Assert.assertTrue(test.fixture.closed);
+  }
+
+  @Test public void testWaitingForAnInstanceTimesOut() {
+    TestPoolScope scope = new TestPoolScope(universe, 1, 50);
+    Provider<Object> provider = scope.scope(Key.get(Object.class), new Provider<Object>() {
+      public Object get() {
+        return new Object();
+      }
+    });
+    universe.currentTestDescriptionThreadLocal.set(new TestDescription(new MyTest(), "first"));
+    provider.get();
+    universe.currentTestDescriptionThreadLocal.set(new TestDescription(new MyTest(), "second"));
+    try {
+      provider.get();
+      Assert.fail();
+    } catch (IllegalStateException expected) {
+      Assert.assertTrue(expected.getMessage(),
+          expected.getMessage().contains(TestPoolScope.TIMEOUT_SYSTEM_PROPERTY_NAME));
+    } finally {
+      universe.currentTestDescriptionThreadLocal.remove();
+    }
+  }
+
+  private static void runTest(Object test, String name) {
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, name), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    scaffolding.runAfterTest();
+  }
+
+  @TestPooled
+  private static final class ResettableFixture implements Resettable, Closeable {
+    int resets = 0;
+    boolean closed = false;
+
+    public void reset() {
+      resets++;
+    }
+
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @TestPooled
+  private static final class NonResettableFixture {}
+
+  private static final class MyTest {
+    @Inject ResettableFixture fixture;
+    @Inject NonResettableFixture other;
+    @Inject TestPoolMonitor monitor;
+  }
+
+  public static final class Env extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+    }
+  }
+}
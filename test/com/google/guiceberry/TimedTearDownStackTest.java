@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.common.collect.Lists;
+import com.google.common.testing.TearDown;
+import com.google.common.testing.TearDownAccepter;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests the {@link TimedTearDownStack} class.
+ */
+public class TimedTearDownStackTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  @Test public void testTearDownsRunInReverseOrder() {
+    final List<String> ran = Lists.newArrayList();
+    TimedTearDownStack stack = newStack(0, 0);
+    stack.addTearDown(new TearDown() {
+      public void tearDown() {
+        ran.add("first");
+      }
+    });
+    stack.addTearDown(new TearDown() {
+      public void tearDown() {
+        ran.add("second");
+      }
+    });
+    stack.runTearDown();
+    Assert.assertEquals(Lists.newArrayList("second", "first"), ran);
+  }
+
+  @Test public void testIndependentTearDownsRunInParallel() {
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    TimedTearDownStack stack = newStack(0, 0);
+    for (int i = 0; i < 2; i++) {
+      stack.addTearDown(new IndependentTearDown() {
+        public void tearDown() throws Exception {
+          // Only returns if both tear downs are running at the same time
+          barrier.await(10, TimeUnit.SECONDS);
+        }
+      });
+    }
+    stack.runTearDown();
+  }
+
+  @Test public void testHungTearDownIsGivenUpOn() {
+    TimedTearDownStack stack = newStack(50, 0);
+    final List<String> ran = Lists.newArrayList();
+    stack.addTearDown(new TearDown() {
+      public void tearDown() {
+        ran.add("after hung");
+      }
+    });
+    stack.addTearDown(new TearDown() {
+      public void tearDown() throws Exception {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      }
+    });
+    long start = System.nanoTime();
+    try {
+      stack.runTearDown();
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    Assert.assertEquals(Lists.newArrayList("after hung"), ran);
+  }
+
+  @Test public void testTearDownsRunInTheTestThreadEvenWithDeadlines() {
+    TimedTearDownStack stack = newStack(TimeUnit.MINUTES.toMillis(1), 0);
+    final List<Thread> threads = Lists.newArrayList();
+    stack.addTearDown(new TearDown() {
+      public void tearDown() {
+        threads.add(Thread.currentThread());
+      }
+    });
+    stack.runTearDown();
+    Assert.assertEquals(Lists.newArrayList(Thread.currentThread()), threads);
+    Assert.assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test public void testTearDownsAreSkippedOnceTheTestDeadlinePassed() {
+    TimedTearDownStack stack = newStack(0, 50);
+    final List<String> ran = Lists.newArrayList();
+    stack.addTearDown(new TearDown() {
+      public void tearDown() {
+        ran.add("after hung");
+      }
+    });
+    stack.addTearDown(new TearDown() {
+      public void tearDown() throws Exception {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      }
+    });
+    try {
+      stack.runTearDown();
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("skipped"));
+    }
+    Assert.assertEquals(Lists.newArrayList(), ran);
+    Assert.assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test public void testCloseableTestScopedInstanceIsClosed() {
+    MyTest test = new MyTest();
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, "test"), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    Assert.assertFalse(test.fixture.closed);
+    scaffolding.runAfterTest();
+    Assert.assertTrue(test.fixture.closed);
+  }
+
+  @Test public void testDeferrableTearDownRunsAfterTheTestEnded() throws Exception {
+    final MyTest test = new MyTest();
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, "test"), DefaultEnvSelector.of(Env.class), universe);
+    scaffolding.runBeforeTest();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicBoolean fixtureWasOpen = new AtomicBoolean();
+    test.tearDownAccepter.addTearDown(new DeferrableTearDown() {
+      public void tearDown() throws Exception {
+        latch.await();
+        fixtureWasOpen.set(!test.fixture.closed);
+      }
+    });
+    scaffolding.runAfterTest();
+    // The deferred tear down is still waiting, so the test's scope is intact
+    Assert.assertFalse(test.fixture.closed);
+    latch.countDown();
+    universe.getDeferredTearDownQueue().flush();
+    Assert.assertTrue(fixtureWasOpen.get());
+    Assert.assertTrue(test.fixture.closed);
+  }
+
+  private static TimedTearDownStack newStack(
+      long tearDownTimeoutMillis, long testTearDownTimeoutMillis) {
+    return new TimedTearDownStack(universe, new TestDescription(new Object(), "test"),
+        tearDownTimeoutMillis, testTearDownTimeoutMillis);
+  }
+
+  @TestScoped
+  static final class CloseableFixture implements Closeable {
+    volatile boolean closed;
+
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static final class MyTest {
+    @Inject CloseableFixture fixture;
+    @Inject TearDownAccepter tearDownAccepter;
+  }
+
+  public static final class Env extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Key;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+
+/**
+ * Tests the {@link UniverseSharedScope} class.
+ */
+public class UniverseSharedScopeTest {
+
+  private static GuiceBerryUniverse universe = null;
+
+  private static int shutDowns = 0;
+
+  @Before public void setUniverse() {
+    universe = new GuiceBerryUniverse();
+    shutDowns = 0;
+  }
+
+  @After public void resetUniverse() {
+    universe = null;
+  }
+
+  @Test public void testInstanceIsSharedAcrossEnvsUntilTheLastOneIsShutDown() {
+    MyTest first = new MyTest();
+    MyTest second = new MyTest();
+    runTest(first, Env0.class);
+    runTest(second, Env1.class);
+    Assert.assertSame(first.resource, second.resource);
+    Key<SharedResource> key = Key.get(SharedResource.class);
+    Assert.assertEquals(2, universe.getUniverseSharedRegistry().getUserCount(key));
+
+    universe.shutDownEnv(Env0.class);
+    Assert.assertFalse(universe.gbeClassToInjectorMap.containsKey(Env0.class));
+    Assert.assertEquals(1, universe.getUniverseSharedRegistry().getUserCount(key));
+    Assert.assertFalse(first.resource.closed);
+    Assert.assertEquals(0, shutDowns);
+
+    universe.shutDownEnv(Env1.class);
+    Assert.assertEquals(0, universe.getUniverseSharedRegistry().getUserCount(key));
+    Assert.assertTrue(first.resource.closed);
+    Assert.assertEquals(1, shutDowns);
+
+    MyTest third = new MyTest();
+    runTest(third, Env0.class);
+    Assert.assertNotSame(first.resource, third.resource);
+  }
+
+  private static void runTest(Object test, Class<? extends AbstractModule> gbeClass) {
+    GuiceBerryUniverse.TestCaseScaffolding scaffolding =
+      new GuiceBerryUniverse.TestCaseScaffolding(
+          new TestDescription(test, "test"), DefaultEnvSelector.of(gbeClass), universe);
+    scaffolding.runBeforeTest();
+    scaffolding.runAfterTest();
+  }
+
+  @UniverseShared
+  static final class SharedResource implements Closeable {
+    boolean closed;
+
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static final class MyTest {
+    @Inject SharedResource resource;
+  }
+
+  public static final class Env0 extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+    }
+  }
+
+  public static final class Env1 extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule(universe));
+      bind(GuiceBerryEnvShutdown.class).toInstance(new GuiceBerryEnvShutdown() {
+        public void shutDown() {
+          shutDowns++;
+        }
+      });
+    }
+  }
+}
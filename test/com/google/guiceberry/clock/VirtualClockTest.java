@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+import com.google.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link VirtualClock} class.
+ */
+public class VirtualClockTest extends TestCase {
+
+  private final VirtualClock clock = new VirtualClock(1000);
+  private final ScheduledExecutorService scheduler = clock.getScheduledExecutorService();
+  private final List<String> ran = Lists.newArrayList();
+
+  public void testTimeOnlyMovesWhenAdvanced() {
+    assertEquals(0, clock.nanoTime());
+    assertEquals(1000, clock.currentTimeMillis());
+    clock.advance(2, TimeUnit.SECONDS);
+    assertEquals(TimeUnit.SECONDS.toNanos(2), clock.nanoTime());
+    assertEquals(3000, clock.currentTimeMillis());
+    try {
+      clock.advance(-1, TimeUnit.SECONDS);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testTasksRunInOrderAtTheirTime() throws Exception {
+    scheduler.schedule(record("b"), 2, TimeUnit.SECONDS);
+    scheduler.schedule(record("a"), 1, TimeUnit.SECONDS);
+    ScheduledFuture<Long> c = scheduler.schedule(new Callable<Long>() {
+      public Long call() {
+        return clock.nanoTime();
+      }
+    }, 3, TimeUnit.SECONDS);
+    clock.advance(1500, TimeUnit.MILLISECONDS);
+    assertEquals(Lists.newArrayList("a"), ran);
+    assertFalse(c.isDone());
+    clock.advance(10, TimeUnit.SECONDS);
+    assertEquals(Lists.newArrayList("a", "b"), ran);
+    assertEquals(TimeUnit.SECONDS.toNanos(3), c.get().longValue());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(11500), clock.nanoTime());
+  }
+
+  public void testExecuteRunsOnlyWhenDueTasksRun() {
+    scheduler.execute(record("a"));
+    assertTrue(ran.isEmpty());
+    clock.runDueTasks();
+    assertEquals(Lists.newArrayList("a"), ran);
+  }
+
+  public void testPeriodicTasks() {
+    ScheduledFuture<?> future =
+        scheduler.scheduleAtFixedRate(record("tick"), 1, 1, TimeUnit.SECONDS);
+    clock.advance(3500, TimeUnit.MILLISECONDS);
+    assertEquals(3, ran.size());
+    future.cancel(false);
+    assertEquals(0, clock.getPendingTaskCount());
+    clock.advance(3, TimeUnit.SECONDS);
+    assertEquals(3, ran.size());
+  }
+
+  public void testShutdown() {
+    scheduler.schedule(record("a"), 1, TimeUnit.SECONDS);
+    assertEquals(1, scheduler.shutdownNow().size());
+    assertTrue(scheduler.isTerminated());
+    try {
+      scheduler.execute(record("b"));
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+    clock.advance(1, TimeUnit.SECONDS);
+    assertTrue(ran.isEmpty());
+  }
+
+  private Runnable record(final String name) {
+    return new Runnable() {
+      public void run() {
+        ran.add(name);
+      }
+    };
+  }
+}
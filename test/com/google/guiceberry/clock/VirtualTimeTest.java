@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.clock;
+
+import com.google.common.testing.TearDownAccepter;
+import com.google.common.testing.TearDownStack;
+import com.google.guiceberry.TestId;
+import com.google.guiceberry.TestScoped;
+import com.google.guiceberry.controllable.IcMaster;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link VirtualTime} class.
+ */
+public class VirtualTimeTest extends TestCase {
+
+  private static final ThreadLocal<TestId> currentTestId = new ThreadLocal<TestId>();
+
+  private static TestId buildTestId(String name) throws Exception {
+    Constructor<TestId> constructor = TestId.class.getDeclaredConstructor(String.class);
+    constructor.setAccessible(true);
+    return constructor.newInstance(name);
+  }
+
+  public void testTimeIsVirtualOnlyForTheTestThatControlsIt() throws Exception {
+    IcMaster icMaster = VirtualTime.controlIn(new IcMaster());
+    Injector serverInjector = Guice.createInjector(
+        icMaster.buildServerModule(new ClockModule(), new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(TestId.class).toProvider(new Provider<TestId>() {
+              public TestId get() {
+                return currentTestId.get();
+              }
+            });
+          }
+        }));
+    Provider<Clock> serverClock = serverInjector.getProvider(Clock.class);
+    Provider<ScheduledExecutorService> serverScheduler =
+        serverInjector.getProvider(ScheduledExecutorService.class);
+
+    TestId controlling = buildTestId("controlling");
+    TestId other = buildTestId("other");
+    TearDownStack tearDownStack = new TearDownStack();
+    VirtualTime virtualTime =
+        buildTestInjector(icMaster, controlling, tearDownStack).getInstance(VirtualTime.class);
+
+    currentTestId.set(controlling);
+    assertSame(virtualTime.getClock(), serverClock.get());
+    final boolean[] ran = new boolean[1];
+    serverScheduler.get().schedule(new Runnable() {
+      public void run() {
+        ran[0] = true;
+      }
+    }, 1, TimeUnit.HOURS);
+    virtualTime.advance(1, TimeUnit.HOURS);
+    assertTrue(ran[0]);
+    assertEquals(TimeUnit.HOURS.toNanos(1), serverClock.get().nanoTime());
+
+    currentTestId.set(other);
+    assertSame(SystemClock.INSTANCE, serverClock.get());
+    assertFalse(serverScheduler.get() == virtualTime.getClock().getScheduledExecutorService());
+
+    tearDownStack.runTearDown();
+    currentTestId.set(controlling);
+    assertSame(SystemClock.INSTANCE, serverClock.get());
+    assertTrue(virtualTime.getClock().getScheduledExecutorService().isShutdown());
+    currentTestId.remove();
+  }
+
+  private static Injector buildTestInjector(final IcMaster icMaster, final TestId testId,
+      final TearDownStack tearDownStack) {
+    return Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        install(icMaster.buildClientModule());
+        bindScope(TestScoped.class, Scopes.NO_SCOPE);
+        bind(TestId.class).toInstance(testId);
+        bind(TearDownAccepter.class).toInstance(tearDownStack);
+      }
+    });
+  }
+}
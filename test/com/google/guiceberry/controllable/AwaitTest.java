@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.controllable;
+
+import com.google.common.testing.TearDownAccepter;
+import com.google.common.testing.TearDownStack;
+import com.google.guiceberry.TestId;
+import com.google.guiceberry.TestScoped;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link Await} and {@link TestSignals} classes.
+ */
+public class AwaitTest extends TestCase {
+
+  private final TearDownStack tearDownStack = new TearDownStack();
+  private TestId testId;
+  private Injector injector;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    testId = buildTestId("foo");
+    injector = Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bindScope(TestScoped.class, Scopes.NO_SCOPE);
+        bind(TestId.class).toInstance(testId);
+        bind(TearDownAccepter.class).toInstance(tearDownStack);
+      }
+    });
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    tearDownStack.runTearDown();
+    super.tearDown();
+  }
+
+  private static TestId buildTestId(String name) throws Exception {
+    Constructor<TestId> constructor = TestId.class.getDeclaredConstructor(String.class);
+    constructor.setAccessible(true);
+    return constructor.newInstance(name);
+  }
+
+  public void testSignalsGivenBeforeWaitingCount() {
+    Await await = injector.getInstance(Await.class);
+    TestSignals testSignals = injector.getInstance(TestSignals.class);
+    testSignals.signal("done");
+    testSignals.signal("done");
+    await.until("done", 0, TimeUnit.SECONDS);
+    await.until("done", 0, TimeUnit.SECONDS);
+    try {
+      await.until("done", 50, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (AssertionError expected) {
+      assertEquals(String.format(
+          "The signal 'done' was not given to test '%s' within 50 milliseconds.", testId),
+          expected.getMessage());
+    }
+    assertTrue(await.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  public void testWaitingTestWakesUpWhenSignaled() throws Exception {
+    Await await = injector.getInstance(Await.class);
+    final TestSignals testSignals = injector.getInstance(TestSignals.class);
+    Thread server = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        testSignals.signal("done");
+      }
+    };
+    server.start();
+    long start = System.nanoTime();
+    await.until("done", 10, TimeUnit.SECONDS);
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    server.join();
+  }
+
+  public void testSignalsOfOtherTestsAreIgnored() throws Exception {
+    Await await = injector.getInstance(Await.class);
+    TestSignals.signal(buildTestId("bar"), "done");
+    try {
+      await.until("done", 10, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (AssertionError expected) {
+    }
+  }
+
+  public void testSignalsAfterTearDownAreDropped() throws Exception {
+    injector.getInstance(Await.class);
+    tearDownStack.runTearDown();
+    TestSignals.signal(testId, "done");
+    Await await = injector.getInstance(Await.class);
+    try {
+      await.until("done", 10, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (AssertionError expected) {
+    }
+  }
+}
@@ -32,6 +32,7 @@ import com.google.inject.TypeLiteral;
 
 import junit.framework.TestCase;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 
 public class IcMasterTest extends TearDownTestCase {
@@ -151,6 +152,50 @@ public class IcMasterTest extends TearDownTestCase {
     assertEquals(MyEnum.FOUR, instanceAfter.myGenericClassOfMyEnum.tField);
   }
 
+  public void testFileStrategy() throws Exception {
+    final File directory = File.createTempFile("guiceberry-ic", "");
+    directory.delete();
+    System.setProperty(FileInjectionController.DIRECTORY_SYSTEM_PROPERTY_NAME,
+        directory.getPath());
+    addTearDown(new TearDown() {
+      public void tearDown() throws Exception {
+        System.clearProperty(FileInjectionController.DIRECTORY_SYSTEM_PROPERTY_NAME);
+        File[] files = directory.listFiles();
+        if (files != null) {
+          for (File file : files) {
+            file.delete();
+          }
+        }
+        directory.delete();
+      }
+    });
+    IcMaster icMaster = new IcMaster()
+      .thatControls(FileInjectionController.strategy(),
+          Key.get(MyEnum.class),
+          Key.get(new TypeLiteral<MyGenericClass<MyEnum>> (){}));
+
+    Injector controlledServerInjector =
+      Guice.createInjector(icMaster.buildServerModule(moduleForServerInjector()));
+    MyTestCase injected =
+      Guice.createInjector(buildTestModule(icMaster)).getInstance(MyTestCase.class);
+
+    injected.myEnumIc.setOverride(MyEnum.TWO);
+    assertEquals(1, directory.list().length);
+    assertEquals(MyEnum.TWO,
+        controlledServerInjector.getInstance(ClassInServer.class).myEnum);
+
+    injected.myEnumIc.resetOverride();
+    assertEquals(0, directory.list().length);
+    assertEquals(MyEnum.ONE,
+        controlledServerInjector.getInstance(ClassInServer.class).myEnum);
+
+    try {
+      injected.myGenericClassOfMyEnumIc.setOverride(new MyGenericClass<MyEnum>(MyEnum.FOUR));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
   private AbstractModule buildTestModule(final IcMaster icMaster) {
     return new AbstractModule() {
       @Override
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.host;
+
+import com.google.common.collect.Sets;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.Set;
+
+/**
+ * Tests the {@link HostPortAllocator} class.
+ */
+public class HostPortAllocatorTest extends TestCase {
+
+  private File directory;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    directory = File.createTempFile("guiceberry-ports", "");
+    directory.delete();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    File[] children = directory.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        child.delete();
+      }
+    }
+    directory.delete();
+    super.tearDown();
+  }
+
+  public void testPortsAreNotRepeatedAndNewRangesAreLeasedWhenNeeded() throws Exception {
+    HostPortAllocator allocator = new HostPortAllocator(directory, 21000, 3);
+    Set<Integer> ports = Sets.newHashSet();
+    for (int i = 0; i < 7; i++) {
+      int port = allocator.allocate();
+      assertTrue(port >= 21000);
+      assertTrue(ports.add(port));
+    }
+    assertTrue(allocator.getRanges().size() >= 3);
+  }
+
+  public void testAllocatorsDoNotShareRanges() throws Exception {
+    HostPortAllocator one = new HostPortAllocator(directory, 21100, 5);
+    HostPortAllocator other = new HostPortAllocator(directory, 21100, 5);
+    int port = one.allocate();
+    int otherPort = other.allocate();
+    assertEquals(21100, one.getRanges().get(0).intValue());
+    assertEquals(21105, other.getRanges().get(0).intValue());
+    assertTrue(port < 21105);
+    assertTrue(otherPort >= 21105);
+  }
+
+  public void testPortsInUseAreSkipped() throws Exception {
+    HostPortAllocator allocator = new HostPortAllocator(directory, 21200, 10);
+    ServerSocket socket = new ServerSocket(21200);
+    try {
+      assertTrue(allocator.allocate() != 21200);
+    } finally {
+      socket.close();
+    }
+  }
+
+  public void testExhaustion() throws Exception {
+    HostPortAllocator allocator = new HostPortAllocator(directory, 65534, 2);
+    allocator.allocate();
+    allocator.allocate();
+    try {
+      allocator.allocate();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.host;
+
+import com.google.common.collect.ImmutableList;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link HostSharedServer} class.
+ */
+public class HostSharedServerTest extends TestCase {
+
+  private File directory;
+  private final CountingServer server = new CountingServer();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    directory = File.createTempFile("guiceberry-host", "");
+    directory.delete();
+    System.setProperty(HostSharedServer.DIRECTORY_SYSTEM_PROPERTY_NAME, directory.getPath());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    System.clearProperty(HostSharedServer.DIRECTORY_SYSTEM_PROPERTY_NAME);
+    delete(directory);
+    super.tearDown();
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  public void testServerIsStartedOnceAndStoppedByTheLastClient() throws Exception {
+    HostSharedServer owner = HostSharedServer.attach("foo", server);
+    HostSharedServer client = HostSharedServer.attach("foo", server);
+    assertTrue(owner.isOwner());
+    assertFalse(client.isOwner());
+    assertEquals(CountingServer.PORT, client.getPort());
+    assertEquals(1, server.starts.get());
+    assertEquals(2, owner.getClientCount());
+
+    Thread detaching = detachInTheBackground(owner);
+    detaching.join(300);
+    assertTrue(detaching.isAlive());
+    assertEquals(0, server.stops.get());
+
+    client.detach();
+    detaching.join(10000);
+    assertFalse(detaching.isAlive());
+    assertEquals(1, server.stops.get());
+  }
+
+  public void testOtherJvmAttachesToTheServer() throws Exception {
+    HostSharedServer owner = HostSharedServer.attach("bar", server);
+    Process other = fork("bar");
+    BufferedReader replies =
+      new BufferedReader(new InputStreamReader(other.getInputStream()));
+    assertEquals(CountingServer.PORT + " false", replies.readLine());
+    assertEquals(2, owner.getClientCount());
+
+    // Tell the other JVM to detach
+    OutputStream commands = other.getOutputStream();
+    commands.write('\n');
+    commands.flush();
+    assertEquals(0, other.waitFor());
+    owner.detach();
+    assertEquals(1, server.starts.get());
+    assertEquals(1, server.stops.get());
+  }
+
+  public void testServerOfADeadJvmIsStartedAnew() throws Exception {
+    Process other = fork("baz");
+    BufferedReader replies =
+      new BufferedReader(new InputStreamReader(other.getInputStream()));
+    assertEquals(CountingServer.PORT + " true", replies.readLine());
+    other.destroy();
+    other.waitFor();
+
+    HostSharedServer owner = HostSharedServer.attach("baz", server);
+    assertTrue(owner.isOwner());
+    assertEquals(1, server.starts.get());
+    assertEquals(1, owner.getClientCount());
+    owner.detach();
+    assertEquals(1, server.stops.get());
+  }
+
+  private Process fork(String name) throws IOException {
+    return new ProcessBuilder(ImmutableList.of(
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+        "-cp", System.getProperty("java.class.path"),
+        "-D" + HostSharedServer.DIRECTORY_SYSTEM_PROPERTY_NAME + "=" + directory.getPath(),
+        OtherJvm.class.getName(), name))
+        .start();
+  }
+
+  private static Thread detachInTheBackground(final HostSharedServer server) {
+    Thread result = new Thread() {
+      @Override
+      public void run() {
+        try {
+          server.detach();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    result.start();
+    return result;
+  }
+
+  private static final class CountingServer implements HostSharedServer.Server {
+    static final int PORT = 4242;
+
+    final AtomicInteger starts = new AtomicInteger();
+    final AtomicInteger stops = new AtomicInteger();
+
+    public int start() {
+      starts.incrementAndGet();
+      return PORT;
+    }
+
+    public void stop() {
+      stops.incrementAndGet();
+    }
+  }
+
+  /**
+   * Attaches to the server named by its argument, prints its port and whether
+   * it owns it, and detaches once it reads a line.
+   */
+  public static final class OtherJvm {
+    public static void main(String[] args) throws IOException {
+      HostSharedServer server = HostSharedServer.attach(args[0], new CountingServer());
+      System.out.println(server.getPort() + " " + server.isOwner());
+      System.out.flush();
+      new BufferedReader(new InputStreamReader(System.in)).readLine();
+      server.detach();
+      System.exit(0);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.index;
+
+import com.google.guiceberry.util.AnnotatedGuiceBerryEnv;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link EnvIndex} class, as written by the
+ * {@link EnvIndexProcessor} when the tests were compiled.
+ */
+public class EnvIndexTest {
+
+  @Test public void testAnnotatedTestClassIsIndexed() {
+    EnvIndex index = EnvIndex.load(getClass().getClassLoader());
+    Assert.assertEquals("com.example.IndexedEnv",
+        index.getEnvName(IndexedTestCase.class.getName()));
+    Assert.assertTrue(index.getEnvNames().contains("com.example.IndexedEnv"));
+    Assert.assertTrue(index.getTestClassesByEnv().get("com.example.IndexedEnv")
+        .contains(IndexedTestCase.class.getName()));
+  }
+
+  @Test public void testNonAnnotatedTestClassIsNotIndexed() {
+    EnvIndex index = EnvIndex.load(getClass().getClassLoader());
+    Assert.assertNull(index.getEnvName(EnvIndexTest.class.getName()));
+  }
+
+  @AnnotatedGuiceBerryEnv("com.example.IndexedEnv")
+  private static final class IndexedTestCase {}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.junit4;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.guiceberry.GuiceBerryEnvMain;
+import com.google.guiceberry.GuiceBerryEnvShutdown;
+import com.google.guiceberry.GuiceBerryModule;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import junit.framework.Assert;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite.SuiteClasses;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the {@link GuiceBerrySuite} class.
+ */
+public class GuiceBerrySuiteTest {
+
+  private static final List<String> events =
+    Collections.synchronizedList(Lists.<String>newArrayList());
+
+  @Test public void testClassesAreGroupedByEnvAndEnvsAreShutDownEarly() {
+    events.clear();
+    Result result = JUnitCore.runClasses(MySuite.class);
+    Assert.assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    Assert.assertEquals(
+        ImmutableList.of(
+            "NoEnv",
+            "start EnvA", "A1", "A2", "stop EnvA",
+            "start EnvB", "B1", "stop EnvB"),
+        events);
+  }
+
+  @RunWith(GuiceBerrySuite.class)
+  @SuiteClasses({A1.class, B1.class, NoEnv.class, A2.class})
+  public static final class MySuite {}
+
+  public static final class A1 {
+    @Rule public GuiceBerryRule guiceBerry = new GuiceBerryRule(EnvA.class);
+    @Test public void test() { events.add("A1"); }
+  }
+
+  public static final class A2 {
+    @Rule public GuiceBerryRule guiceBerry = new GuiceBerryRule(EnvA.class);
+    @Test public void test() { events.add("A2"); }
+  }
+
+  public static final class B1 {
+    @Rule public GuiceBerryRule guiceBerry = new GuiceBerryRule(EnvB.class);
+    @Test public void test() { events.add("B1"); }
+  }
+
+  public static final class NoEnv {
+    @Test public void test() { events.add("NoEnv"); }
+  }
+
+  private abstract static class RecordingEnv extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule());
+    }
+
+    @Provides
+    GuiceBerryEnvMain getMain() {
+      return new GuiceBerryEnvMain() {
+        public void run() {
+          events.add("start " + RecordingEnv.this.getClass().getSimpleName());
+        }
+      };
+    }
+
+    @Provides
+    GuiceBerryEnvShutdown getShutdown() {
+      return new GuiceBerryEnvShutdown() {
+        public void shutDown() {
+          events.add("stop " + RecordingEnv.this.getClass().getSimpleName());
+        }
+      };
+    }
+  }
+
+  public static final class EnvA extends RecordingEnv {}
+
+  public static final class EnvB extends RecordingEnv {}
+}
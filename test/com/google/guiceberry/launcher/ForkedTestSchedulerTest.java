@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link ForkedTestScheduler} class.
+ */
+public class ForkedTestSchedulerTest extends TestCase {
+
+  private static final Map<String, String> ENVS = ImmutableMap.of(
+      "A1", "EnvA", "A2", "EnvA", "A3", "EnvA", "B1", "EnvB", "B2", "EnvB");
+
+  public void testGroupsOfAnEnvGoToASingleWorker() {
+    ForkedTestScheduler scheduler = new ForkedTestScheduler(
+        ImmutableList.of("A1", "B1", "A2", "B2", "A3"), ENVS, 2);
+    assertEquals(ImmutableList.of("A1", "A2", "A3"), drain(scheduler, 0, 3));
+    assertEquals(ImmutableList.of("B1", "B2"), drain(scheduler, 1, 2));
+    assertNull(scheduler.next(0));
+    assertNull(scheduler.next(1));
+  }
+
+  public void testIdleWorkerStealsAWholeGroupFirst() {
+    ForkedTestScheduler scheduler = new ForkedTestScheduler(
+        ImmutableList.of("A1", "A2", "A3", "B1", "B2", "C1"), ENVS, 2);
+    // Worker 0 gets EnvA, worker 1 gets EnvB and C1
+    assertEquals(ImmutableList.of("A1", "A2", "A3"), drain(scheduler, 0, 3));
+    ForkedTestScheduler.Assignment stolen = scheduler.next(0);
+    assertEquals("C1", stolen.testClassName);
+    assertNull(stolen.envName);
+    assertEquals(ImmutableList.of("B1", "B2"), drain(scheduler, 1, 2));
+  }
+
+  public void testIdleWorkerStealsHalfOfTheLastGroup() {
+    ForkedTestScheduler scheduler = new ForkedTestScheduler(
+        ImmutableList.of("A1", "A2", "A3", "B1"), ENVS, 2);
+    assertEquals("A1", scheduler.next(0).testClassName);
+    assertEquals("B1", scheduler.next(1).testClassName);
+    ForkedTestScheduler.Assignment stolen = scheduler.next(1);
+    assertEquals("A3", stolen.testClassName);
+    assertEquals("EnvA", stolen.envName);
+    assertEquals("A2", scheduler.next(0).testClassName);
+    assertNull(scheduler.next(0));
+    assertNull(scheduler.next(1));
+  }
+
+  private static List<String> drain(ForkedTestScheduler scheduler, int worker, int count) {
+    List<String> result = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      result.add(scheduler.next(worker).testClassName);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import com.google.common.base.Joiner;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+/**
+ * Tests the {@link ForkedTestWorker} class.
+ */
+public class ForkedTestWorkerTest extends TestCase {
+
+  public void testRunsTheRequestedClassesAndReportsTheirResults() throws Exception {
+    String commands = Joiner.on('\n').join(
+        "RUN " + Passing.class.getName() + " -",
+        "RUN " + Failing.class.getName() + " -",
+        "RUN com.this.does.NotExist -",
+        "EXIT");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(bytes, true, "UTF-8");
+    new ForkedTestWorker(new BufferedReader(new StringReader(commands)), out, true).run();
+
+    String[] lines = bytes.toString("UTF-8").split("\n");
+    assertEquals(6, lines.length);
+    assertEquals("@@GuiceBerry READY", lines[0]);
+    assertTrue(lines[1], lines[1].startsWith(
+        "@@GuiceBerry DONE " + Passing.class.getName() + " 1 0 0 "));
+    assertTrue(lines[2], lines[2].startsWith(
+        "@@GuiceBerry FAILURE " + Failing.class.getName() + " testFails("));
+    assertTrue(lines[2], lines[2].contains("Expected failure"));
+    assertTrue(lines[3], lines[3].startsWith(
+        "@@GuiceBerry DONE " + Failing.class.getName() + " 1 1 0 "));
+    assertTrue(lines[4], lines[4].startsWith(
+        "@@GuiceBerry FAILURE com.this.does.NotExist "));
+    assertTrue(lines[5], lines[5].startsWith(
+        "@@GuiceBerry DONE com.this.does.NotExist 1 1 0 "));
+  }
+
+  public void testEscapingRoundTrips() {
+    String text = "a\tb\nc\\n\r";
+    String escaped = ForkedTestProtocol.escape(text);
+    assertEquals(-1, escaped.indexOf('\n'));
+    assertEquals(-1, escaped.indexOf('\t'));
+    assertEquals(text, ForkedTestProtocol.unescape(escaped));
+  }
+
+  public static final class Passing extends TestCase {
+    public void testPasses() {}
+  }
+
+  public static final class Failing extends TestCase {
+    public void testFails() {
+      fail("Expected failure");
+    }
+  }
+}
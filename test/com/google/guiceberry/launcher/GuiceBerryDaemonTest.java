@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.launcher;
+
+import com.google.common.collect.ImmutableList;
+import com.google.guiceberry.GuiceBerryEnvMain;
+import com.google.guiceberry.GuiceBerryModule;
+import com.google.guiceberry.junit4.GuiceBerryRule;
+import com.google.inject.AbstractModule;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+/**
+ * Tests the {@link GuiceBerryDaemon} and {@link GuiceBerryDaemonClient}
+ * classes.
+ */
+public class GuiceBerryDaemonTest {
+
+  private GuiceBerryDaemon daemon;
+  private Thread serving;
+
+  @Before public void startDaemon() throws Exception {
+    daemon = new GuiceBerryDaemon(0);
+    serving = new Thread() {
+      @Override
+      public void run() {
+        try {
+          daemon.serve();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    serving.start();
+  }
+
+  @After public void stopDaemon() throws Exception {
+    GuiceBerryDaemonClient.stop(daemon.getPort());
+    serving.join();
+  }
+
+  @Test public void testEnvsStayWarmUntilClassesChange() throws Exception {
+    // WarmEnvCase fails if its env gets started more than once in a generation
+    runWarmEnvCase();
+    runWarmEnvCase();
+    Assert.assertEquals(1, daemon.getGenerationCount());
+
+    File classFile = new File(new File(WarmEnvCase.class.getProtectionDomain()
+        .getCodeSource().getLocation().toURI()),
+        WarmEnvCase.class.getName().replace('.', File.separatorChar) + ".class");
+    Assert.assertTrue(classFile.setLastModified(classFile.lastModified() + 2000));
+    runWarmEnvCase();
+    Assert.assertEquals(2, daemon.getGenerationCount());
+  }
+
+  private void runWarmEnvCase() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int failures = GuiceBerryDaemonClient.run(daemon.getPort(),
+        ImmutableList.of(WarmEnvCase.class.getName()), new PrintStream(bytes, true));
+    Assert.assertEquals(bytes.toString(), 0, failures);
+  }
+
+  public static final class WarmEnvCase {
+    @Rule public GuiceBerryRule guiceBerry = new GuiceBerryRule(WarmEnv.class);
+
+    @Test public void test() {
+      Assert.assertEquals(1, WarmEnv.starts);
+    }
+  }
+
+  public static final class WarmEnv extends AbstractModule {
+    static int starts = 0;
+
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule());
+      bind(GuiceBerryEnvMain.class).toInstance(new GuiceBerryEnvMain() {
+        public void run() {
+          starts++;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.testng;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.guiceberry.GuiceBerryModule;
+import com.google.guiceberry.TestId;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.testng.ITestResult;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the {@link TestNgGuiceBerryListener} class.
+ */
+public class TestNgGuiceBerryListenerTest {
+
+  private static final List<String> events =
+    Collections.synchronizedList(Lists.<String>newArrayList());
+
+  @Before public void clearEvents() {
+    events.clear();
+  }
+
+  @Test public void testMethodsAreSetUpAndGroupedByEnv() {
+    TestListenerAdapter results = run(null);
+    Assert.assertEquals(results.getFailedTests().toString(),
+        0, results.getFailedTests().size());
+    Assert.assertEquals(4, results.getPassedTests().size());
+    Assert.assertEquals(
+        ImmutableList.of("NoEnv", "A1", "A2", "B1"), events);
+    for (ITestResult result : results.getPassedTests()) {
+      if (result.getInstance() instanceof NoEnv) {
+        Assert.assertNull(result.getAttribute(
+            TestNgGuiceBerryListener.SET_UP_NANOS_ATTRIBUTE));
+      } else {
+        Assert.assertNotNull(result.getAttribute(
+            TestNgGuiceBerryListener.SET_UP_NANOS_ATTRIBUTE));
+        Assert.assertNotNull(result.getAttribute(
+            TestNgGuiceBerryListener.TEAR_DOWN_NANOS_ATTRIBUTE));
+      }
+    }
+  }
+
+  @Test public void testWorksWithParallelClasses() {
+    TestListenerAdapter results = run("classes");
+    Assert.assertEquals(results.getFailedTests().toString(),
+        0, results.getFailedTests().size());
+    Assert.assertEquals(4, results.getPassedTests().size());
+    Assert.assertEquals(4, events.size());
+  }
+
+  private static TestListenerAdapter run(String parallel) {
+    TestNG testNg = new TestNG();
+    testNg.setUseDefaultListeners(false);
+    testNg.setVerbose(0);
+    testNg.setTestClasses(
+        new Class[] {A1.class, B1.class, NoEnv.class, A2.class});
+    if (parallel != null) {
+      testNg.setParallel(parallel);
+      testNg.setThreadCount(3);
+    }
+    TestListenerAdapter results = new TestListenerAdapter();
+    testNg.addListener(results);
+    testNg.addListener(new TestNgGuiceBerryListener());
+    testNg.run();
+    return results;
+  }
+
+  private abstract static class InjectedCase {
+    @Inject TestId testId;
+
+    void record(String name) {
+      Assert.assertNotNull(testId);
+      events.add(name);
+    }
+  }
+
+  @TestNgGuiceBerryEnv(EnvA.class)
+  public static final class A1 extends InjectedCase {
+    @org.testng.annotations.Test public void test() { record("A1"); }
+  }
+
+  @TestNgGuiceBerryEnv(EnvA.class)
+  public static final class A2 extends InjectedCase {
+    @org.testng.annotations.Test public void test() { record("A2"); }
+  }
+
+  @TestNgGuiceBerryEnv(EnvB.class)
+  public static final class B1 extends InjectedCase {
+    @org.testng.annotations.Test public void test() { record("B1"); }
+  }
+
+  public static final class NoEnv {
+    @org.testng.annotations.Test public void test() { events.add("NoEnv"); }
+  }
+
+  public static final class EnvA extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule());
+    }
+  }
+
+  public static final class EnvB extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new GuiceBerryModule());
+    }
+  }
+}
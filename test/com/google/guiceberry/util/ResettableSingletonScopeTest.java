@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.guiceberry.util;
+
+import com.google.common.collect.Lists;
+import com.google.guiceberry.TestDescription;
+import com.google.guiceberry.util.ResettableSingletonScope.ResetPolicy;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Tests the {@link ResettableSingletonScope} class.
+ */
+public class ResettableSingletonScopeTest {
+
+  private static final Key<Object> KEY = Key.get(Object.class);
+
+  private final AtomicInteger built = new AtomicInteger();
+
+  private final Provider<Object> unscoped = new Provider<Object>() {
+    public Object get() {
+      built.incrementAndGet();
+      return new Object();
+    }
+  };
+
+  @Test public void testResetBuildsTheInstanceAgainOnNextUse() {
+    ResettableSingletonScope scope = new ResettableSingletonScope();
+    Provider<Object> provider = scope.scope(KEY, unscoped);
+    Object first = provider.get();
+    Assert.assertSame(first, provider.get());
+    scope.reset();
+    Assert.assertEquals(1, built.get());
+    Assert.assertNotSame(first, provider.get());
+    Assert.assertEquals(1, scope.getGeneration());
+  }
+
+  @Test public void testPerClassPolicyResetsWhenTheTestClassChanges() {
+    ResettableSingletonScope scope = new ResettableSingletonScope(ResetPolicy.PER_CLASS);
+    Provider<Object> provider = scope.scope(KEY, unscoped);
+    scope.beforeTest(new TestDescription(new MyTest(), "first"));
+    Object first = provider.get();
+    scope.beforeTest(new TestDescription(new MyTest(), "second"));
+    Assert.assertSame(first, provider.get());
+    scope.beforeTest(new TestDescription(new MyOtherTest(), "third"));
+    Assert.assertNotSame(first, provider.get());
+  }
+
+  @Test public void testInstanceIsOnlyBuiltOnceByConcurrentThreads() throws Exception {
+    ResettableSingletonScope scope = new ResettableSingletonScope();
+    final Provider<Object> provider = scope.scope(KEY, unscoped);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Object>> futures = Lists.newArrayList();
+      for (int i = 0; i < 100; i++) {
+        futures.add(executor.submit(new Callable<Object>() {
+          public Object call() {
+            return provider.get();
+          }
+        }));
+      }
+      for (Future<Object> future : futures) {
+        Assert.assertSame(futures.get(0).get(), future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertEquals(1, built.get());
+  }
+
+  private static class MyTest {}
+
+  private static final class MyOtherTest {}
+}